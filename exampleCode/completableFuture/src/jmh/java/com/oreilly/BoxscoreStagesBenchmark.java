@@ -0,0 +1,135 @@
+package com.oreilly;
+
+import com.google.gson.Gson;
+import com.oreilly.json.Result;
+import okhttp3.mockwebserver.MockWebServer;
+import org.jsoup.Jsoup;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures each stage of the boxscore pipeline against recorded fixtures: the Gson decode
+ * of a boxscore, the Jsoup parse of a day index page and the file write of a result, both
+ * on their own and, for the two fetches, behind a local stand-in HTTP server.
+ *
+ * <p>Throughput and sampled latency percentiles are reported for every stage. Run the main
+ * method (or pass {@code -prof gc}) to add the allocation rate per operation.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BoxscoreStagesBenchmark {
+    private static final LocalDate DATE = LocalDate.of(2017, Month.MAY, 5);
+    private static final String PATTERN = "gid_2017_05_05_arimlb_colmlb_1/";
+    private static final String DAY_INDEX = "/fixtures/year_2017/month_05/day_05/index.html";
+    private static final Gson REFLECTIVE = new Gson();
+
+    private byte[] boxscoreJson;
+    private String dayIndexHtml;
+    private Result result;
+
+    private MockWebServer server;
+    private Path dataDir;
+    private BoxscoreRetriever retriever;
+    private GamePageLinksSupplier supplier;
+    private GamePageParser parser;
+
+    @Setup
+    public void setUp() throws IOException {
+        boxscoreJson = readResource("/sample_boxscore.json");
+        dayIndexHtml = new String(readResource(DAY_INDEX), StandardCharsets.UTF_8);
+
+        server = new MockWebServer();
+        server.setDispatcher(new FakeMlbDispatcher(15, 0));
+        server.start();
+        String base = server.url("/").toString();
+
+        dataDir = Files.createTempDirectory("boxscores");
+        retriever = new BoxscoreRetriever(base);
+        supplier = new GamePageLinksSupplier(base, DATE, 1);
+        parser = new GamePageParser(base, new ResultWriter(dataDir, true));
+        result = decodeBoxscore();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.shutdown();
+        try (Stream<Path> files = Files.walk(dataDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Result decodeBoxscore() {
+        return retriever.decode(new InputStreamReader(
+                new ByteArrayInputStream(boxscoreJson), StandardCharsets.UTF_8));
+    }
+
+    // the reflective Gson binding that decodeBoxscore replaced, for comparison
+    @Benchmark
+    public Result decodeBoxscoreReflective() {
+        return REFLECTIVE.fromJson(new InputStreamReader(
+                new ByteArrayInputStream(boxscoreJson), StandardCharsets.UTF_8), Result.class);
+    }
+
+    @Benchmark
+    public List<String> parseDayIndex() {
+        return supplier.getGamePageLinks(Jsoup.parse(dayIndexHtml, "http://localhost/"));
+    }
+
+    @Benchmark
+    public void saveResultToFile() {
+        parser.saveResultToFile(result);
+    }
+
+    @Benchmark
+    public Optional<Result> fetchBoxscore() {
+        return retriever.gamePattern2Result(PATTERN);
+    }
+
+    @Benchmark
+    public List<String> fetchDayIndex() {
+        return supplier.getGamePageLinks(DATE);
+    }
+
+    private static byte[] readResource(String name) throws IOException {
+        try (InputStream in = BoxscoreStagesBenchmark.class.getResourceAsStream(name)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BoxscoreStagesBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,77 @@
+package com.oreilly;
+
+import com.google.gson.Gson;
+import com.oreilly.json.BoxscoreGson;
+import com.oreilly.json.Result;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the result analysis of {@link GamePageParser} over a season-sized list of games.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class GamePageParserBenchmark {
+
+    @Param({"2430"})
+    private int games;
+
+    private final GamePageParser parser = new GamePageParser();
+    private List<Result> results;
+    private GameStore store;
+
+    @Setup
+    public void loadResults() throws IOException {
+        Gson gson = BoxscoreGson.get();
+        results = new ArrayList<>(games);
+        for (int i = 0; i < games; i++) {
+            try (Reader reader = new InputStreamReader(
+                    getClass().getResourceAsStream("/sample_boxscore.json"), StandardCharsets.UTF_8)) {
+                Result result = gson.fromJson(reader, Result.class);
+                result.getData().getBoxscore().getLinescore()
+                        .setHomeTeamRuns(Integer.toString(ThreadLocalRandom.current().nextInt(15)));
+                results.add(result);
+            }
+        }
+        store = GameStore.of(results.stream());
+    }
+
+    @Benchmark
+    public OptionalInt getMaxScore() {
+        return parser.getMaxScore(results);
+    }
+
+    @Benchmark
+    public Optional<Result> getMaxGame() {
+        return parser.getMaxGame(results);
+    }
+
+    @Benchmark
+    public GameSummary summarize() {
+        return parser.summarize(results);
+    }
+
+    @Benchmark
+    public OptionalInt storeMaxTotalRuns() {
+        return store.maxTotalRuns();
+    }
+
+    @Benchmark
+    public GameSummary summarizeParallel() {
+        return results.parallelStream().collect(GameSummary.collector());
+    }
+}
@@ -0,0 +1,91 @@
+package com.oreilly;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Splits a backfill into {@link Shard}s on a {@link ShardQueue} for {@link BackfillWorker}s
+ * to pick up, and watches the queue until they have all been done or have failed.
+ * Workers stop when the queue is finished, so start them once the shards are submitted;
+ * after that they can be added or killed at any time. The coordinator itself holds no
+ * state, and submitting the same backfill again after a restart adds only the shards
+ * the queue does not have yet.
+ */
+public class BackfillCoordinator {
+    private final ShardQueue queue;
+
+    public BackfillCoordinator(ShardQueue queue) {
+        this.queue = queue;
+    }
+
+    /**
+     * Submits {@code days} days from {@code startDate} in shards of {@code daysPerShard}
+     * days, and returns the number of shards added.
+     */
+    public int submitDays(LocalDate startDate, int days, int daysPerShard) throws IOException {
+        int shards = 0;
+        for (int i = 0; i < days; i += daysPerShard) {
+            LocalDate first = startDate.plusDays(i);
+            if (queue.submit(Shard.ofDays("days_" + first, first, Math.min(daysPerShard, days - i)))) {
+                shards++;
+            }
+        }
+        return shards;
+    }
+
+    /**
+     * Submits the given game links in shards of {@code gamesPerShard}, and returns the
+     * number of shards added.
+     */
+    public int submitGames(List<String> links, int gamesPerShard) throws IOException {
+        int shards = 0;
+        for (int i = 0; i < links.size(); i += gamesPerShard) {
+            List<String> games = links.subList(i, Math.min(i + gamesPerShard, links.size()));
+            if (queue.submit(Shard.ofGames(String.format("games_%06d", i), games))) {
+                shards++;
+            }
+        }
+        return shards;
+    }
+
+    /**
+     * Waits until every shard is done or has failed, returning the leases of dead workers
+     * to the queue every {@code pollInterval} so that live workers can take them over.
+     */
+    public void awaitCompletion(Duration pollInterval) throws IOException, InterruptedException {
+        while (!queue.isFinished()) {
+            int reclaimed = queue.reclaimExpired();
+            if (reclaimed > 0) {
+                System.out.println("Reclaimed " + reclaimed + " expired leases");
+            }
+            System.out.printf("Pending: %d, Leased: %d, Done: %d, Failed: %d%n",
+                    queue.pendingCount(), queue.leasedCount(), queue.doneCount(), queue.failedCount());
+            Thread.sleep(pollInterval.toMillis());
+        }
+    }
+
+    /**
+     * Usage: {@code BackfillCoordinator <queue dir> <start date> <days> [days per shard] [lease seconds]}.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 3) {
+            System.err.println("Usage: BackfillCoordinator <queue dir> <start date> <days> "
+                    + "[days per shard] [lease seconds]");
+            System.exit(2);
+        }
+        Path queueDir = Paths.get(args[0]);
+        int daysPerShard = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        Duration leaseTimeout = Duration.ofSeconds(args.length > 4 ? Long.parseLong(args[4]) : 60);
+
+        ShardQueue queue = ShardQueue.create(queueDir, leaseTimeout);
+        BackfillCoordinator coordinator = new BackfillCoordinator(queue);
+        int shards = coordinator.submitDays(LocalDate.parse(args[1]), Integer.parseInt(args[2]), daysPerShard);
+        System.out.println("Submitted " + shards + " shards to " + queueDir);
+        coordinator.awaitCompletion(leaseTimeout.dividedBy(2));
+        System.out.println("Backfill complete, failed shards: " + queue.failedCount());
+    }
+}
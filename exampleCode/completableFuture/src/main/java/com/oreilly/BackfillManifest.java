@@ -0,0 +1,147 @@
+package com.oreilly;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The record of a backfill's finished work: an append-only text file with one key per
+ * line, such as a game key ({@code gid_2017_05_05_arimlb_colmlb_1}) or a finished day.
+ *
+ * <p>Keys added are held in memory until the next {@link #checkpoint()}, which appends
+ * them and forces the file to disk. A crash therefore loses at most the keys added
+ * since the last checkpoint, and that work is simply done again. A line cut short by a
+ * crash is dropped when the manifest is opened.
+ *
+ * <p>The file is opened for appending, so if two processes ever hold the same manifest,
+ * as a worker stalled past its lease and the one that took the shard over may, their
+ * checkpoints interleave whole lines instead of overwriting each other.
+ */
+public class BackfillManifest implements Closeable {
+    private final FileChannel file;
+    private final Set<String> keys = ConcurrentHashMap.newKeySet();
+    private List<String> pending = new ArrayList<>(); // guarded by this
+    private boolean abandoned; // guarded by this
+
+    public BackfillManifest(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        byte[] bytes = Files.exists(path) ? Files.readAllBytes(path) : new byte[0];
+        file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        load(bytes);
+    }
+
+    private void load(byte[] bytes) throws IOException {
+        int lineStart = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                if (i > lineStart) {
+                    keys.add(new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8));
+                }
+                lineStart = i + 1;
+            }
+        }
+        // drop a torn last line so the next append starts on a fresh one
+        if (lineStart < bytes.length) {
+            file.truncate(lineStart);
+        }
+    }
+
+    public boolean contains(String key) {
+        return keys.contains(key);
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * Records {@code key} as done. It is written to disk at the next checkpoint.
+     */
+    public void add(String key) {
+        if (keys.add(key)) {
+            synchronized (this) {
+                pending.add(key);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of keys added since the last checkpoint.
+     */
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Appends the keys added since the last checkpoint and forces them to disk.
+     */
+    public void checkpoint() throws IOException {
+        checkpoint(takePending());
+    }
+
+    /**
+     * Returns the keys added since the last checkpoint, and starts collecting anew. The
+     * caller must pass them to {@link #checkpoint(List)}; until then they are in no file.
+     */
+    public synchronized List<String> takePending() {
+        List<String> taken = pending;
+        pending = new ArrayList<>();
+        return taken;
+    }
+
+    /**
+     * Appends {@code keys}, taken with {@link #takePending()}, and forces them to disk. Keys
+     * added since they were taken wait for the next checkpoint. If the write fails, the
+     * keys are pending again.
+     */
+    public synchronized void checkpoint(List<String> keys) throws IOException {
+        if (keys.isEmpty() || abandoned) {
+            return;
+        }
+        StringBuilder lines = new StringBuilder();
+        for (String key : keys) {
+            lines.append(key).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            while (buffer.hasRemaining()) {
+                file.write(buffer);
+            }
+            file.force(false);
+        } catch (IOException e) {
+            pending.addAll(0, keys);
+            throw e;
+        }
+    }
+
+    /**
+     * Closes the file without writing the keys added since the last checkpoint, for a
+     * writer that no longer owns it. Once this returns, later checkpoints write nothing.
+     */
+    public synchronized void abandon() throws IOException {
+        abandoned = true;
+        pending = new ArrayList<>();
+        file.close();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            checkpoint();
+        } finally {
+            file.close();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.oreilly;
+
+import com.oreilly.json.Result;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Retrieves and saves every game of a date range, and can be stopped and started again
+ * without redoing finished work. Each saved game is recorded in a {@link BackfillManifest},
+ * as is each day whose games were all saved, including a day without games. On a later
+ * run, finished days are skipped without fetching their index page and finished games
+ * without fetching their boxscore.
+ *
+ * <p>The manifest is checkpointed every {@code checkpointEvery} games or
+ * {@code checkpointInterval}, whichever comes first, and at the end of every day. The
+ * sink is flushed first if it is {@link Flushable}, and the checkpoint records only the
+ * games saved before the flush began, so a game is never recorded as done before its
+ * data is on disk. A crash costs at most the games saved since the last checkpoint.
+ * Games whose boxscore could not be retrieved, and days whose index page could not be
+ * loaded, are not recorded and are tried again on the next run.
+ *
+ * <p>A run can be stopped with {@link #cancel()}.
+ */
+public class BackfillRunner {
+    private static final int DEFAULT_MAX_IN_FLIGHT = 16;
+    private static final int DEFAULT_CHECKPOINT_EVERY = 100;
+    private static final Duration DEFAULT_CHECKPOINT_INTERVAL = Duration.ofSeconds(10);
+
+    private final HttpClientConfig config;
+    private final ResultSink sink;
+    private final BackfillManifest manifest;
+    private final int maxInFlight;
+    private final int checkpointEvery;
+    private final long checkpointIntervalNanos;
+    private long lastCheckpoint = System.nanoTime(); // guarded by this
+    private volatile boolean cancelled;
+
+    public BackfillRunner(HttpClientConfig config, ResultSink sink, BackfillManifest manifest) {
+        this(config, sink, manifest, DEFAULT_MAX_IN_FLIGHT, DEFAULT_CHECKPOINT_EVERY, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    public BackfillRunner(HttpClientConfig config, ResultSink sink, BackfillManifest manifest,
+                          int maxInFlight, int checkpointEvery, Duration checkpointInterval) {
+        if (maxInFlight < 1 || checkpointEvery < 1) {
+            throw new IllegalArgumentException("maxInFlight and checkpointEvery must be positive");
+        }
+        this.config = config;
+        this.sink = sink;
+        this.manifest = manifest;
+        this.maxInFlight = maxInFlight;
+        this.checkpointEvery = checkpointEvery;
+        this.checkpointIntervalNanos = checkpointInterval.toNanos();
+    }
+
+    static String dayKey(LocalDate date) {
+        return "day_" + date;
+    }
+
+    /**
+     * Stops the run: no more boxscores are requested, and the results of those in flight
+     * are dropped without being saved or recorded. The run returns once they complete.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Backfills {@code days} days from {@code startDate}, one day at a time with up to
+     * {@code maxInFlight} boxscores in flight.
+     */
+    public Progress run(LocalDate startDate, int days) throws IOException {
+        GamePageLinksSupplier links = new GamePageLinksSupplier(config, startDate, days);
+        BoxscoreRetriever retriever = new BoxscoreRetriever(config);
+        Progress progress = new Progress();
+
+        for (int i = 0; i < days && !cancelled; i++) {
+            LocalDate date = startDate.plusDays(i);
+            if (manifest.contains(dayKey(date))) {
+                progress.daysSkipped.incrementAndGet();
+                continue;
+            }
+            Optional<List<String>> dayLinks = links.fetchGamePageLinks(date);
+            if (!dayLinks.isPresent()) {
+                // tried again on the next run
+                progress.daysFailed.incrementAndGet();
+                continue;
+            }
+            int failed = fetchAndSave(retriever, unfinished(dayLinks.get(), progress), progress);
+
+            // a day without games is finished as soon as its index has loaded
+            if (failed == 0 && !cancelled) {
+                manifest.add(dayKey(date));
+                checkpoint();
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * Backfills the games of the given links, such as {@code gid_2017_05_05_arimlb_colmlb_1/},
+     * with up to {@code maxInFlight} boxscores in flight.
+     */
+    public Progress run(List<String> links) throws IOException {
+        Progress progress = new Progress();
+        fetchAndSave(new BoxscoreRetriever(config), unfinished(links, progress), progress);
+        return progress;
+    }
+
+    private List<String> unfinished(List<String> links, Progress progress) {
+        List<String> todo = new ArrayList<>();
+        for (String link : links) {
+            if (manifest.contains(BoxscoreArchiveWriter.gameKey(link))) {
+                progress.skipped.incrementAndGet();
+            } else {
+                todo.add(link);
+            }
+        }
+        return todo;
+    }
+
+    // returns the number of games that could not be retrieved or saved
+    private int fetchAndSave(BoxscoreRetriever retriever, List<String> todo, Progress progress) throws IOException {
+        AtomicInteger failed = new AtomicInteger();
+        try {
+            BoundedFanOut.forEach(untilCancelled(todo.iterator()), maxInFlight, retriever::gamePattern2ResultAsync,
+                    (result, index) -> {
+                        if (cancelled) {
+                            return;
+                        }
+                        if (save(todo.get(index), result)) {
+                            progress.saved.incrementAndGet();
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                    }).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        } finally {
+            progress.failed.addAndGet(failed.get());
+            checkpoint();
+        }
+        return failed.get();
+    }
+
+    private Iterator<String> untilCancelled(Iterator<String> links) {
+        return new Iterator<String>() {
+            @Override
+            public boolean hasNext() {
+                return !cancelled && links.hasNext();
+            }
+
+            @Override
+            public String next() {
+                return links.next();
+            }
+        };
+    }
+
+    private boolean save(String link, Optional<Result> result) {
+        if (!result.isPresent()) {
+            return false;
+        }
+        try {
+            sink.save(result.get());
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+        manifest.add(BoxscoreArchiveWriter.gameKey(link));
+        maybeCheckpoint();
+        return true;
+    }
+
+    private void maybeCheckpoint() {
+        synchronized (this) {
+            if (manifest.pendingCount() < checkpointEvery
+                    && System.nanoTime() - lastCheckpoint < checkpointIntervalNanos) {
+                return;
+            }
+        }
+        try {
+            checkpoint();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private synchronized void checkpoint() throws IOException {
+        // only games saved before the flush may be recorded; later ones wait for the next one.
+        // If the flush fails, these games are never recorded, and the next run redoes them.
+        List<String> saved = manifest.takePending();
+        if (sink instanceof Flushable) {
+            ((Flushable) sink).flush();
+        }
+        manifest.checkpoint(saved);
+        lastCheckpoint = System.nanoTime();
+    }
+
+    /**
+     * Counts of the work done by one run.
+     */
+    public static class Progress {
+        private final AtomicInteger saved = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger daysSkipped = new AtomicInteger();
+        private final AtomicInteger daysFailed = new AtomicInteger();
+
+        public int getSaved() {
+            return saved.get();
+        }
+
+        /**
+         * Returns the number of games skipped because an earlier run saved them.
+         */
+        public int getSkipped() {
+            return skipped.get();
+        }
+
+        public int getFailed() {
+            return failed.get();
+        }
+
+        /**
+         * Returns the number of days skipped because an earlier run finished them.
+         */
+        public int getDaysSkipped() {
+            return daysSkipped.get();
+        }
+
+        /**
+         * Returns the number of days whose index page could not be loaded.
+         */
+        public int getDaysFailed() {
+            return daysFailed.get();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Saved: %d, Skipped: %d, Failed: %d, Days skipped: %d, Days failed: %d",
+                    getSaved(), getSkipped(), getFailed(), getDaysSkipped(), getDaysFailed());
+        }
+    }
+}
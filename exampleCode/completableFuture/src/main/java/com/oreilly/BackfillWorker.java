@@ -0,0 +1,173 @@
+package com.oreilly;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One backfill process: claims shards from a {@link ShardQueue} until every shard is
+ * done, and runs each through a {@link BackfillRunner} while heartbeating its lease.
+ * Start as many as the upstream and the disks allow, on one machine or several that
+ * share the queue directory.
+ *
+ * <p>Each shard has its own {@link BackfillManifest} next to the queue, so a shard
+ * taken over from a crashed worker skips the games that worker had already saved.
+ * A shard is completed only when its manifest records every day or game in it;
+ * otherwise it is released for another attempt, until the queue's attempts run out.
+ *
+ * <p>A worker that loses its lease, because a heartbeat found it reclaimed or none has
+ * succeeded for two thirds of the lease timeout, cancels the runner and abandons the
+ * manifest at once, normally before the lease can expire and the shard pass to another
+ * worker. A worker stalled for longer, by a long GC pause say, may still checkpoint
+ * after the shard was taken over; the manifest only appends, so no keys are lost, and
+ * the games both saved are simply written twice.
+ */
+public class BackfillWorker {
+    private static final long MAX_IDLE_POLL_MILLIS = 1000;
+
+    private final ShardQueue queue;
+    private final Path manifestDir;
+    private final HttpClientConfig config;
+    private final ResultSink sink;
+    private final String workerId;
+
+    public BackfillWorker(ShardQueue queue, Path manifestDir, HttpClientConfig config,
+                          ResultSink sink, String workerId) {
+        this.queue = queue;
+        this.manifestDir = manifestDir;
+        this.config = config;
+        this.sink = sink;
+        this.workerId = workerId;
+    }
+
+    /**
+     * Works until the queue is finished, and returns the number of shards this worker completed.
+     */
+    public int run() throws IOException, InterruptedException {
+        long heartbeatMillis = Math.max(1, queue.getLeaseTimeout().toMillis() / 3);
+        ScheduledExecutorService heartbeats = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "lease-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int completed = 0;
+        try {
+            while (!queue.isFinished()) {
+                Optional<ShardQueue.Lease> lease = queue.claim(workerId);
+                if (!lease.isPresent()) {
+                    // the remaining shards are leased; wait in case one of them is abandoned
+                    Thread.sleep(Math.min(heartbeatMillis, MAX_IDLE_POLL_MILLIS));
+                    continue;
+                }
+                if (process(lease.get(), heartbeats, heartbeatMillis)) {
+                    completed++;
+                }
+            }
+        } finally {
+            heartbeats.shutdownNow();
+        }
+        return completed;
+    }
+
+    private boolean process(ShardQueue.Lease lease, ScheduledExecutorService heartbeats, long heartbeatMillis)
+            throws IOException {
+        Shard shard = lease.getShard();
+        long lostAfterNanos = queue.getLeaseTimeout().toNanos() * 2 / 3;
+        ScheduledFuture<?> heartbeat = null;
+        try (BackfillManifest manifest = new BackfillManifest(manifestDir.resolve(shard.getId() + ".txt"))) {
+            BackfillRunner runner = new BackfillRunner(config, sink, manifest);
+            AtomicLong lastBeat = new AtomicLong(System.nanoTime());
+            heartbeat = heartbeats.scheduleAtFixedRate(() -> {
+                // after a stall the lease may have been reclaimed and claimed again by now
+                boolean held = System.nanoTime() - lastBeat.get() < lostAfterNanos;
+                try {
+                    held = held && lease.heartbeat();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+                if (held) {
+                    lastBeat.set(System.nanoTime());
+                } else if (!runner.isCancelled()) {
+                    System.err.println(workerId + " lost the lease on " + shard.getId());
+                    runner.cancel();
+                    try {
+                        manifest.abandon();
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+
+            BackfillRunner.Progress progress = shard.isDays()
+                    ? runner.run(shard.getStartDate(), shard.getDays())
+                    : runner.run(shard.getGames());
+            heartbeat.cancel(false);
+            System.out.println(workerId + " " + shard + ": " + progress);
+            if (runner.isCancelled()) {
+                return false;
+            }
+            if (!isFinished(shard, manifest)) {
+                System.err.println(workerId + " releasing unfinished " + shard.getId());
+                lease.release();
+                return false;
+            }
+            return lease.complete();
+        } catch (IOException | RuntimeException e) {
+            if (heartbeat != null) {
+                heartbeat.cancel(false);
+            }
+            e.printStackTrace();
+            lease.release();
+            return false;
+        }
+    }
+
+    // a day whose index failed to load has no links and so no failed games, but is not recorded
+    private static boolean isFinished(Shard shard, BackfillManifest manifest) {
+        if (shard.isDays()) {
+            for (int i = 0; i < shard.getDays(); i++) {
+                if (!manifest.contains(BackfillRunner.dayKey(shard.getStartDate().plusDays(i)))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        for (String link : shard.getGames()) {
+            if (!manifest.contains(BoxscoreArchiveWriter.gameKey(link))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Usage: {@code BackfillWorker <queue dir> <output dir> [base url] [worker id]}.
+     * Results are written with a {@link ResultWriter}, one file per game, so shards
+     * done twice after a lost lease simply overwrite their files.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: BackfillWorker <queue dir> <output dir> [base url] [worker id]");
+            System.exit(2);
+        }
+        Path queueDir = Paths.get(args[0]);
+        HttpClientConfig config = args.length > 2
+                ? HttpClientConfig.builder().baseUrl(args[2]).build()
+                : HttpClientConfig.defaults();
+        String workerId = args.length > 3 ? args[3] : ManagementFactory.getRuntimeMXBean().getName();
+
+        BackfillWorker worker = new BackfillWorker(ShardQueue.open(queueDir), queueDir.resolve("manifests"),
+                config, new ResultWriter(Paths.get(args[1]), false), workerId);
+        int completed = worker.run();
+        System.out.println(workerId + " completed " + completed + " shards");
+        // OkHttp's threads would otherwise keep the JVM alive for a minute
+        System.exit(0);
+    }
+}
@@ -0,0 +1,116 @@
+package com.oreilly;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Runs an asynchronous task over a source of items, never keeping more than
+ * {@code limit} tasks in flight. Each "lane" pulls the next item as soon as its
+ * previous task completes, so no thread is ever blocked waiting for a slot.
+ */
+final class BoundedFanOut<T, R> {
+    private final Iterator<? extends T> source;
+    private final Function<? super T, CompletableFuture<R>> task;
+    private final ObjIntConsumer<? super R> sink;
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+    private final AtomicInteger lanes = new AtomicInteger();
+    private int index;
+
+    private BoundedFanOut(Iterator<? extends T> source,
+                          Function<? super T, CompletableFuture<R>> task,
+                          ObjIntConsumer<? super R> sink) {
+        this.source = source;
+        this.task = task;
+        this.sink = sink;
+    }
+
+    /**
+     * Applies {@code task} to every item, returning the results in the order of the input list.
+     */
+    static <T, R> CompletableFuture<List<R>> map(List<T> items, int limit,
+                                                 Function<? super T, CompletableFuture<R>> task) {
+        AtomicReferenceArray<R> results = new AtomicReferenceArray<>(items.size());
+        return forEach(items.iterator(), limit, task, (result, i) -> results.set(i, result))
+                .thenApply(v -> {
+                    List<R> list = new ArrayList<>(results.length());
+                    for (int i = 0; i < results.length(); i++) {
+                        list.add(results.get(i));
+                    }
+                    return list;
+                });
+    }
+
+    /**
+     * Applies {@code task} to every item and hands each result, with the index of its item,
+     * to {@code sink} as soon as it is available. The sink may be called from several threads.
+     */
+    static <T, R> CompletableFuture<Void> forEach(Iterator<? extends T> source, int limit,
+                                                  Function<? super T, CompletableFuture<R>> task,
+                                                  ObjIntConsumer<? super R> sink) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive: " + limit);
+        }
+        BoundedFanOut<T, R> fanOut = new BoundedFanOut<>(source, task, sink);
+        fanOut.lanes.set(limit);
+        for (int i = 0; i < limit; i++) {
+            fanOut.runLane();
+        }
+        return fanOut.done;
+    }
+
+    private void runLane() {
+        while (!done.isDone()) {
+            T item;
+            int i;
+            synchronized (this) {
+                if (!source.hasNext()) {
+                    break;
+                }
+                item = source.next();
+                i = index++;
+            }
+
+            CompletableFuture<R> future;
+            try {
+                future = task.apply(item);
+            } catch (Throwable t) {
+                done.completeExceptionally(t);
+                return;
+            }
+
+            if (!future.isDone()) {
+                future.whenComplete((result, ex) -> {
+                    if (accept(future, i)) {
+                        runLane();
+                    }
+                });
+                return;
+            }
+            if (!accept(future, i)) {
+                return;
+            }
+        }
+        if (lanes.decrementAndGet() == 0) {
+            done.complete(null);
+        }
+    }
+
+    private boolean accept(CompletableFuture<R> future, int i) {
+        try {
+            sink.accept(future.join(), i);
+            return true;
+        } catch (CompletionException e) {
+            done.completeExceptionally(e.getCause());
+        } catch (Throwable t) {
+            done.completeExceptionally(t);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,130 @@
+package com.oreilly;
+
+import com.google.gson.Gson;
+import com.oreilly.json.BoxscoreGson;
+import com.oreilly.json.Result;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Random access to an archive written by {@link BoxscoreArchiveWriter}. The index files
+ * are loaded into memory when the reader is opened; segment files are memory-mapped on
+ * first use, and a lookup decodes only the record of the requested game.
+ */
+public class BoxscoreArchiveReader implements Closeable {
+    private static final Gson GSON = BoxscoreGson.get();
+
+    private final Path dir;
+    private final Map<String, Entry> index = new HashMap<>();
+    private final Map<String, MappedByteBuffer> segments = new ConcurrentHashMap<>();
+
+    public BoxscoreArchiveReader(Path dir) throws IOException {
+        this.dir = dir;
+        try (DirectoryStream<Path> indexFiles =
+                     Files.newDirectoryStream(dir, "*" + BoxscoreArchiveWriter.INDEX_SUFFIX)) {
+            for (Path indexFile : indexFiles) {
+                loadIndex(indexFile);
+            }
+        }
+    }
+
+    private void loadIndex(Path indexFile) throws IOException {
+        String fileName = indexFile.getFileName().toString();
+        String segment = fileName.substring(0, fileName.length() - BoxscoreArchiveWriter.INDEX_SUFFIX.length());
+        long segmentSize = Files.size(dir.resolve(segment + BoxscoreArchiveWriter.DATA_SUFFIX));
+        try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t");
+                if (fields.length != 3) {
+                    continue;
+                }
+                Entry entry = new Entry(segment, Long.parseLong(fields[1]), Integer.parseInt(fields[2]));
+                // skip records that never reached the segment before a crash
+                if (entry.offset + entry.length <= segmentSize) {
+                    index.put(fields[0], entry);
+                }
+            }
+        }
+    }
+
+    public Set<String> gameKeys() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Looks up a game by its {@code gid_} pattern, with or without the trailing slash.
+     */
+    public Optional<Result> find(String pattern) throws IOException {
+        Entry entry = index.get(BoxscoreArchiveWriter.gameKey(pattern));
+        if (entry == null) {
+            return Optional.empty();
+        }
+        ByteBuffer record = segment(entry.segment).duplicate();
+        record.position((int) entry.offset);
+        record.limit((int) entry.offset + entry.length);
+        String json = StandardCharsets.UTF_8.decode(record).toString();
+        return Optional.ofNullable(GSON.fromJson(json, Result.class));
+    }
+
+    private MappedByteBuffer segment(String name) throws IOException {
+        try {
+            return segments.computeIfAbsent(name, n -> {
+                try {
+                    return map(dir.resolve(n + BoxscoreArchiveWriter.DATA_SUFFIX));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Segment too large to map: " + file);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    @Override
+    public void close() {
+        segments.clear();
+    }
+
+    private static class Entry {
+        private final String segment;
+        private final long offset;
+        private final int length;
+
+        Entry(String segment, long offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
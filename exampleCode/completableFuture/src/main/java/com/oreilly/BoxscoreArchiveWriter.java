@@ -0,0 +1,143 @@
+package com.oreilly;
+
+import com.google.gson.Gson;
+import com.oreilly.json.BoxscoreGson;
+import com.oreilly.json.Result;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Appends results to one newline-delimited JSON segment file per day or per season,
+ * instead of writing a file per game. Each segment {@code <name>.ndjson} has an index
+ * {@code <name>.idx} with one line per game: the game key, the byte offset of its record
+ * in the segment and the record length, separated by tabs. Saving a game is one
+ * sequential append to each file.
+ *
+ * <p>Game keys are the {@code gid_} pattern of the game without the trailing slash,
+ * e.g. {@code gid_2017_05_05_arimlb_colmlb_1}.
+ */
+public class BoxscoreArchiveWriter implements ResultSink, Closeable, Flushable {
+    public enum Granularity {DAY, SEASON}
+
+    static final String DATA_SUFFIX = ".ndjson";
+    static final String INDEX_SUFFIX = ".idx";
+
+    private static final Gson GSON = BoxscoreGson.get();
+
+    private final Path dir;
+    private final Granularity granularity;
+    private final Map<String, Segment> segments = new ConcurrentHashMap<>();
+
+    public BoxscoreArchiveWriter(Path dir, Granularity granularity) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        this.granularity = granularity;
+    }
+
+    /**
+     * Returns the archive key of a game link or pattern such as {@code gid_2017_05_05_arimlb_colmlb_1/}.
+     */
+    public static String gameKey(String pattern) {
+        return pattern.endsWith("/") ? pattern.substring(0, pattern.length() - 1) : pattern;
+    }
+
+    /**
+     * Returns the archive key of a result, derived from its {@code game_id}
+     * (e.g. {@code 2017/05/05/arimlb-colmlb-1}).
+     */
+    public static String gameKey(Result result) {
+        String gameId = result.getData().getBoxscore().getGameId();
+        if (gameId == null) {
+            throw new IllegalArgumentException("Result has no game_id: " + result);
+        }
+        return "gid_" + gameId.replace('/', '_').replace('-', '_');
+    }
+
+    static String segmentName(String gameKey, Granularity granularity) {
+        // gid_yyyy_mm_dd_...
+        return granularity == Granularity.DAY ? gameKey.substring(4, 14) : gameKey.substring(4, 8);
+    }
+
+    @Override
+    public void save(Result result) throws IOException {
+        String key = gameKey(result);
+        byte[] record = (GSON.toJson(result) + "\n").getBytes(StandardCharsets.UTF_8);
+        segment(segmentName(key, granularity)).append(key, record);
+    }
+
+    private Segment segment(String name) throws IOException {
+        try {
+            return segments.computeIfAbsent(name, n -> {
+                try {
+                    return new Segment(dir.resolve(n + DATA_SUFFIX), dir.resolve(n + INDEX_SUFFIX));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Forces all appended records and index entries to disk.
+     */
+    public void flush() throws IOException {
+        for (Segment segment : segments.values()) {
+            segment.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Segment segment : segments.values()) {
+            segment.close();
+        }
+        segments.clear();
+    }
+
+    private static class Segment {
+        private final FileChannel data;
+        private final Writer index;
+
+        Segment(Path dataFile, Path indexFile) throws IOException {
+            data = FileChannel.open(dataFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            index = Files.newBufferedWriter(indexFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+
+        synchronized void append(String key, byte[] record) throws IOException {
+            long offset = data.size();
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            while (buffer.hasRemaining()) {
+                data.write(buffer);
+            }
+            index.write(key + '\t' + offset + '\t' + record.length + '\n');
+        }
+
+        synchronized void flush() throws IOException {
+            index.flush();
+            data.force(false);
+        }
+
+        synchronized void close() throws IOException {
+            try {
+                index.close();
+            } finally {
+                data.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.oreilly;
+
+import com.oreilly.json.Result;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Streams game links from a {@link GamePageLinksSupplier} to a {@link BoxscoreRetriever}
+ * through a bounded queue, so boxscores are fetched while later days are still being
+ * discovered. Neither the links nor the results are collected: each result goes straight
+ * to the sink, and the queue capacity bounds how far discovery can run ahead of retrieval.
+ *
+ * <p>All workers block, so the executor must be able to run
+ * {@code linkParallelism + fetchParallelism} tasks at once (a cached or
+ * virtual-thread-per-task executor, for example).
+ */
+public class BoxscorePipeline {
+    private static final String END = new String("END");
+
+    private final GamePageLinksSupplier linksSupplier;
+    private final BoxscoreRetriever retriever;
+    private final Executor executor;
+    private final int linkParallelism;
+    private final int fetchParallelism;
+    private final int queueCapacity;
+
+    public BoxscorePipeline(GamePageLinksSupplier linksSupplier, BoxscoreRetriever retriever,
+                            Executor executor, int linkParallelism, int fetchParallelism,
+                            int queueCapacity) {
+        if (linkParallelism < 1 || fetchParallelism < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("parallelism and queue capacity must be positive");
+        }
+        this.linksSupplier = linksSupplier;
+        this.retriever = retriever;
+        this.executor = executor;
+        this.linkParallelism = linkParallelism;
+        this.fetchParallelism = fetchParallelism;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Runs the pipeline, passing every retrieved result to {@code sink} as soon as it
+     * arrives. The sink is called from several threads at once.
+     */
+    public CompletableFuture<Void> run(Consumer<? super Result> sink) {
+        BlockingQueue<String> queue = new ArrayBlockingQueue<>(queueCapacity);
+        CompletableFuture<Void> done = new CompletableFuture<>();
+
+        List<CompletableFuture<Void>> fetchers = new ArrayList<>();
+        for (int i = 0; i < fetchParallelism; i++) {
+            fetchers.add(CompletableFuture.runAsync(() -> fetch(queue, sink, done), executor));
+        }
+        CompletableFuture<Void> producer =
+                linksSupplier.streamLinks(executor, linkParallelism, link -> put(queue, link, done));
+        producer.whenComplete((v, ex) -> {
+            for (int i = 0; i < fetchParallelism; i++) {
+                put(queue, END, done);
+            }
+        });
+
+        CompletableFuture<Void> all = CompletableFuture.allOf(fetchers.toArray(new CompletableFuture<?>[0]));
+        CompletableFuture.allOf(producer, all).whenComplete((v, ex) -> {
+            if (ex != null) {
+                done.completeExceptionally(ex instanceof CompletionException ? ex.getCause() : ex);
+            } else {
+                done.complete(null);
+            }
+        });
+        fetchers.forEach(f -> f.whenComplete((v, ex) -> {
+            if (ex != null) {
+                done.completeExceptionally(ex instanceof CompletionException ? ex.getCause() : ex);
+            }
+        }));
+        return done;
+    }
+
+    private void fetch(BlockingQueue<String> queue, Consumer<? super Result> sink,
+                       CompletableFuture<Void> done) {
+        try {
+            while (!done.isDone()) {
+                String link = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (link == END) {
+                    return;
+                }
+                if (link != null) {
+                    retriever.gamePattern2Result(link).ifPresent(sink);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("interrupted");
+        }
+    }
+
+    private void put(BlockingQueue<String> queue, String link, CompletableFuture<Void> done) {
+        try {
+            while (!queue.offer(link, 100, TimeUnit.MILLISECONDS)) {
+                if (done.isDone()) {
+                    throw new CancellationException("pipeline stopped");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("interrupted");
+        }
+    }
+}
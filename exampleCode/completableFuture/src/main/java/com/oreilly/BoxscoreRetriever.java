@@ -1,47 +1,150 @@
 package com.oreilly;
 
 import com.google.gson.Gson;
+import com.oreilly.json.BoxscoreGson;
 import com.oreilly.json.Result;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class BoxscoreRetriever implements Function<List<String>, List<Result>> {
-    private static final String BASE = "http://gd2.mlb.com/components/game/mlb/";
+    private static final int DEFAULT_MAX_IN_FLIGHT = HttpClientConfig.DEFAULT_MAX_REQUESTS_PER_HOST;
 
-    private OkHttpClient client = new OkHttpClient();
-    private Gson gson = new Gson();
+    private final String base;
+    private final OkHttpClient client;
+    private final boolean ownsClient;
+    private final ResilientFetcher fetcher;
+    private Gson gson = BoxscoreGson.get();
 
-    @SuppressWarnings("ConstantConditions")
-    public Optional<Result> gamePattern2Result(String pattern) {
+    public BoxscoreRetriever() {
+        this(HttpClientConfig.defaults());
+    }
+
+    public BoxscoreRetriever(String base) {
+        this(base, new OkHttpClient(), true);
+    }
+
+    /**
+     * Uses the shared client of {@code config}.
+     */
+    public BoxscoreRetriever(HttpClientConfig config) {
+        this(config.getBaseUrl(), config.client(), false);
+    }
+
+    /**
+     * Uses the shared client of {@code config} and retries, times out and hedges
+     * requests as set by {@code retryPolicy}.
+     */
+    public BoxscoreRetriever(HttpClientConfig config, RetryPolicy retryPolicy) {
+        this(config.getBaseUrl(), config.client(), false, retryPolicy);
+    }
+
+    public BoxscoreRetriever(String base, OkHttpClient client) {
+        this(base, client, false);
+    }
+
+    public BoxscoreRetriever(String base, OkHttpClient client, RetryPolicy retryPolicy) {
+        this(base, client, false, retryPolicy);
+    }
+
+    private BoxscoreRetriever(String base, OkHttpClient client, boolean ownsClient) {
+        this(base, client, ownsClient, RetryPolicy.none());
+    }
+
+    private BoxscoreRetriever(String base, OkHttpClient client, boolean ownsClient, RetryPolicy retryPolicy) {
+        this.base = base;
+        this.client = client;
+        this.ownsClient = ownsClient;
+        this.fetcher = retryPolicy == RetryPolicy.none() ? null : new ResilientFetcher(client, retryPolicy);
+    }
+
+    private Request boxscoreRequest(String pattern) {
         String[] parts = pattern.split("_");
         String dateUrl = String.format("year_%s/month_%s/day_%s/",
                 parts[1], parts[2], parts[3]);
-        String boxscoreUrl = BASE + dateUrl + pattern + "boxscore.json";
+        String boxscoreUrl = base + dateUrl + pattern + "boxscore.json";
 
-        Request request = new Request.Builder()
+        return new Request.Builder()
                 .url(boxscoreUrl)
                 .build();
-        try (Response response = client.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                System.out.println("Boxscore not found for " + boxscoreUrl);
-                return Optional.empty();
-            }
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    private Optional<Result> response2Result(Response response) {
+        if (!response.isSuccessful()) {
+            System.out.println("Boxscore not found for " + response.request().url());
+            return Optional.empty();
+        }
+
+        return Optional.ofNullable(decode(response.body().charStream()));
+    }
 
-            return Optional.ofNullable(
-                    gson.fromJson(response.body().charStream(), Result.class));
+    Result decode(Reader json) {
+        return gson.fromJson(json, Result.class);
+    }
+
+    /**
+     * Retrieves one boxscore, blocking the caller. With a {@link RetryPolicy} the
+     * request is retried and hedged as in {@link #gamePattern2ResultAsync(String)}.
+     */
+    public Optional<Result> gamePattern2Result(String pattern) {
+        if (fetcher != null) {
+            return gamePattern2ResultAsync(pattern).join();
+        }
+        Request request = boxscoreRequest(pattern);
+        try (Response response = client.newCall(request).execute()) {
+            return response2Result(response);
         } catch (IOException e) {
             e.printStackTrace();
             return Optional.empty();
         }
     }
 
+    /**
+     * Non-blocking version of {@link #gamePattern2Result(String)}. The request is
+     * enqueued on OkHttp's dispatcher and the JSON is decoded on its callback thread,
+     * so no caller thread waits on the network.
+     *
+     * <p>With a {@link RetryPolicy}, failed or timed-out attempts are retried after a
+     * jittered exponential back-off, and a slow attempt may be hedged with a second request;
+     * the first usable response wins and the other call is cancelled.
+     */
+    public CompletableFuture<Optional<Result>> gamePattern2ResultAsync(String pattern) {
+        if (fetcher != null) {
+            return fetcher.fetch(boxscoreRequest(pattern), this::response2Result);
+        }
+        CompletableFuture<Optional<Result>> future = new CompletableFuture<>();
+        client.newCall(boxscoreRequest(pattern)).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                e.printStackTrace();
+                future.complete(Optional.empty());
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (Response r = response) {
+                    future.complete(response2Result(r));
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        return future;
+    }
+
     @Override
     public List<Result> apply(List<String> strings) {
         return strings.parallelStream()
@@ -50,4 +153,53 @@ public class BoxscoreRetriever implements Function<List<String>, List<Result>> {
                 .map(Optional::get)
                 .collect(Collectors.toList());
     }
+
+    public CompletableFuture<List<Result>> applyAsync(List<String> strings) {
+        return applyAsync(strings, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Retrieves all boxscores without blocking, keeping at most {@code maxInFlight}
+     * requests outstanding. Results are returned in the order of the patterns.
+     *
+     * <p>A retriever that created its own client raises the client's dispatcher limits to
+     * {@code maxInFlight}. A shared client (see {@link HttpClientConfig}) keeps its limits,
+     * and {@code maxInFlight} is lowered to them, so requests do not sit in the
+     * dispatcher's queue while their attempt timeouts run.
+     */
+    public CompletableFuture<List<Result>> applyAsync(List<String> strings, int maxInFlight) {
+        Dispatcher dispatcher = client.dispatcher();
+        if (ownsClient) {
+            if (dispatcher.getMaxRequests() < maxInFlight) {
+                dispatcher.setMaxRequests(maxInFlight);
+            }
+            if (dispatcher.getMaxRequestsPerHost() < maxInFlight) {
+                dispatcher.setMaxRequestsPerHost(maxInFlight);
+            }
+        } else {
+            maxInFlight = Math.min(maxInFlight,
+                    Math.min(dispatcher.getMaxRequests(), dispatcher.getMaxRequestsPerHost()));
+        }
+        return BoundedFanOut.map(strings, maxInFlight, this::gamePattern2ResultAsync)
+                .thenApply(results -> results.stream()
+                        .filter(Optional::isPresent)
+                        .map(Optional::get)
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * Retrieves each boxscore as its own blocking task on {@code executor}, so the
+     * fan-out is bounded by the executor rather than by the common fork-join pool.
+     */
+    public CompletableFuture<List<Result>> applyAsync(List<String> strings, Executor executor) {
+        List<CompletableFuture<Optional<Result>>> futures = strings.stream()
+                .map(pattern -> CompletableFuture.supplyAsync(() -> gamePattern2Result(pattern), executor))
+                .collect(Collectors.toList());
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(v -> futures.stream()
+                        .map(CompletableFuture::join)
+                        .filter(Optional::isPresent)
+                        .map(Optional::get)
+                        .collect(Collectors.toList()));
+    }
 }
@@ -1,5 +1,8 @@
 package com.oreilly;
 
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.select.Elements;
@@ -7,13 +10,20 @@ import org.jsoup.select.Elements;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class GamePageLinksSupplier implements Supplier<List<String>> {
-    private static final String BASE = "http://gd2.mlb.com/components/game/mlb/";
+    static final String BASE = "http://gd2.mlb.com/components/game/mlb/";
+    private final String base;
+    private final OkHttpClient client;
     private LocalDate startDate;
     private int days;
 
@@ -22,33 +32,120 @@ public class GamePageLinksSupplier implements Supplier<List<String>> {
     }
 
     public GamePageLinksSupplier(LocalDate startDate, int days) {
+        this(BASE, startDate, days);
+    }
+
+    public GamePageLinksSupplier(String base, LocalDate startDate, int days) {
+        this(base, startDate, days, null);
+    }
+
+    /**
+     * Uses the base URL and the shared client of {@code config}.
+     */
+    public GamePageLinksSupplier(HttpClientConfig config, LocalDate startDate, int days) {
+        this(config.getBaseUrl(), startDate, days, config.client());
+    }
+
+    /**
+     * Fetches the day index pages with {@code client} instead of Jsoup's own connection,
+     * so they can share its cache (see {@link HistoricalDataCache}) and connection pool.
+     */
+    public GamePageLinksSupplier(String base, LocalDate startDate, int days, OkHttpClient client) {
+        this.base = base;
+        this.client = client;
         this.startDate = startDate;
         this.days = days;
     }
 
+    /**
+     * Returns the game links of a day, or an empty list if its index page could not be
+     * loaded. Use {@link #fetchGamePageLinks(LocalDate)} to tell the two apart.
+     */
     public List<String> getGamePageLinks(LocalDate localDate) {
-        String formattedDate = String.format("year_%4s/month_%02d/day_%02d%n",
+        return fetchGamePageLinks(localDate).orElseGet(ArrayList::new);
+    }
+
+    /**
+     * Returns the game links of a day, which are none on a day without games, or empty if
+     * its index page could not be loaded.
+     */
+    public Optional<List<String>> fetchGamePageLinks(LocalDate localDate) {
+        String formattedDate = String.format("year_%4s/month_%02d/day_%02d/",
                 localDate.getYear(), localDate.getMonthValue(), localDate.getDayOfMonth());
         try {
-            Document doc = Jsoup.connect(BASE + formattedDate).get();
-            Elements links = doc.select("a");
-            return links.stream()
-                    .filter(link -> link.attr("href").contains("gid"))
-                    .map(link -> link.attr("href"))
-                    .collect(Collectors.toList());
+            return Optional.of(getGamePageLinks(fetch(base + formattedDate)));
         } catch (IOException e) {
             System.err.println(e.getMessage());
-            return new ArrayList<>();
+            return Optional.empty();
         }
     }
 
+    public List<String> getGamePageLinks(Document doc) {
+        Elements links = doc.select("a");
+        return links.stream()
+                .filter(link -> link.attr("href").contains("gid"))
+                .map(link -> link.attr("href"))
+                .collect(Collectors.toList());
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    private Document fetch(String url) throws IOException {
+        if (client == null) {
+            return Jsoup.connect(url).get();
+        }
+        Request request = new Request.Builder().url(url).build();
+        try (Response response = client.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new IOException("HTTP error fetching URL. Status=" + response.code() + ", URL=" + url);
+            }
+            return Jsoup.parse(response.body().string(), url);
+        }
+    }
+
+    private Stream<LocalDate> dates() {
+        return Stream.iterate(startDate, d -> d.plusDays(1))
+                .limit(days);
+    }
+
     @Override
     public List<String> get() {
-        return Stream.iterate(startDate, d -> d.plusDays(1))
-                .limit(days)
+        return dates()
                 .map(this::getGamePageLinks)
                 .flatMap(list -> list.isEmpty() ? Stream.empty() : list.stream())
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Fetches the day index pages on {@code executor}, at most {@code parallelism} at a time.
+     * The links are returned in date order, as from {@link #get()}.
+     */
+    public CompletableFuture<List<String>> getAsync(Executor executor, int parallelism) {
+        List<LocalDate> dates = dates().collect(Collectors.toList());
+        return BoundedFanOut.map(dates, parallelism,
+                date -> CompletableFuture.supplyAsync(() -> getGamePageLinks(date), executor))
+                .thenApply(lists -> lists.stream()
+                        .flatMap(List::stream)
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * A supplier that fetches the days concurrently, for use in place of this one.
+     */
+    public Supplier<List<String>> concurrently(Executor executor, int parallelism) {
+        return () -> getAsync(executor, parallelism).join();
+    }
+
+    /**
+     * Hands each link to {@code consumer} as soon as its day has been fetched, without
+     * collecting them. Days finish in any order and the consumer may be called from
+     * several threads at once; at most {@code parallelism} days are fetched at a time.
+     */
+    public CompletableFuture<Void> streamLinks(Executor executor, int parallelism,
+                                               Consumer<? super String> consumer) {
+        Iterator<LocalDate> dates = dates().iterator();
+        return BoundedFanOut.forEach(dates, parallelism,
+                date -> CompletableFuture.supplyAsync(() -> getGamePageLinks(date), executor),
+                (links, i) -> links.forEach(consumer));
+    }
+
 }
@@ -1,50 +1,62 @@
 package com.oreilly;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.oreilly.json.Boxscore;
 import com.oreilly.json.Result;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.time.LocalDate;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 public class GamePageParser {
+    private static final int STREAMING_LINK_PARALLELISM = 4;
+    private static final int STREAMING_FETCH_PARALLELISM = 32;
+    private static final int STREAMING_QUEUE_CAPACITY = 256;
+
+    private final HttpClientConfig config;
+    private final ResultSink sink;
+
+    public GamePageParser() {
+        this(HttpClientConfig.defaults(), new ResultWriter());
+    }
+
+    public GamePageParser(String base) {
+        this(base, new ResultWriter());
+    }
+
+    public GamePageParser(String base, ResultSink sink) {
+        this(HttpClientConfig.builder().baseUrl(base).build(), sink);
+    }
+
+    public GamePageParser(HttpClientConfig config, ResultSink sink) {
+        this.config = config;
+        this.sink = sink;
+    }
 
     private void saveResultList(List<Result> results) {
         results.parallelStream().forEach(this::saveResultToFile);
     }
 
-    @SuppressWarnings("ResultOfMethodCallIgnored")
+    private CompletableFuture<Void> saveResultList(List<Result> results, Executor executor) {
+        return CompletableFuture.allOf(results.stream()
+                .map(result -> CompletableFuture.runAsync(() -> saveResultToFile(result), executor))
+                .toArray(CompletableFuture<?>[]::new));
+    }
+
     public void saveResultToFile(Result result) {
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        Boxscore boxscore = result.getData().getBoxscore();
-        String awayFname = boxscore.getAwayFname();
-        String homeFname = boxscore.getHomeFname();
-        String date = boxscore.getDate();
-        String fileName = String.format("%s_%s_at_%s.txt", date, awayFname, homeFname);
-        fileName = fileName.replaceAll("\\s+", "_").replaceAll(",", "");
-        File dir = new File("build/data");
-        dir.mkdir();
         try {
-            File file = new File(dir + "/" + fileName);
-            Files.write(file.toPath().toAbsolutePath(), gson.toJson(result).getBytes());
+            sink.save(result);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
     private int getTotalScore(Result result) {
-        Boxscore boxscore = result.getData().getBoxscore();
-        String awayRuns = boxscore.getLinescore().getAwayTeamRuns();
-        String homeRuns = boxscore.getLinescore().getHomeTeamRuns();
-        return Integer.parseInt(awayRuns) + Integer.parseInt(homeRuns);
+        return result.getData().getBoxscore().getLinescore().getTotalRuns();
     }
 
     public OptionalInt getMaxScore(List<Result> results) {
@@ -58,28 +70,83 @@ public class GamePageParser {
                 .max(Comparator.comparingInt(this::getTotalScore));
     }
 
+    /**
+     * Gathers all statistics of {@code results} in one pass.
+     */
+    public GameSummary summarize(List<Result> results) {
+        return results.stream().collect(GameSummary.collector());
+    }
+
     public void printGames(LocalDate startDate, int days) {
         CompletableFuture<List<Result>> future =
-                CompletableFuture.supplyAsync(new GamePageLinksSupplier(startDate, days))
-                        .thenApply(new BoxscoreRetriever());
+                CompletableFuture.supplyAsync(new GamePageLinksSupplier(config, startDate, days))
+                        .thenApply(new BoxscoreRetriever(config));
+
+        CompletableFuture<Void> futureWrite = future.thenAcceptAsync(this::saveResultList);
+
+        printGames(future, futureWrite, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs every stage of the pipeline, including each boxscore fetch and each file
+     * write, as a separate task on {@code executor} instead of the common pool.
+     * A virtual-thread-per-task executor (see {@link PipelineExecutors}) lets thousands
+     * of these blocking tasks run at once.
+     */
+    public void printGames(LocalDate startDate, int days, Executor executor) {
+        BoxscoreRetriever retriever = new BoxscoreRetriever(config);
+        CompletableFuture<List<Result>> future =
+                CompletableFuture.supplyAsync(new GamePageLinksSupplier(config, startDate, days), executor)
+                        .thenCompose(links -> retriever.applyAsync(links, executor));
 
         CompletableFuture<Void> futureWrite =
-                future.thenAcceptAsync(this::saveResultList)
-                        .exceptionally(ex -> {
-                            System.err.println(ex.getMessage());
-                            return null;
-                        });
+                future.thenComposeAsync(results -> saveResultList(results, executor), executor);
+
+        printGames(future, futureWrite, executor);
+    }
+
+    private void printGames(CompletableFuture<List<Result>> future,
+                            CompletableFuture<Void> futureWrite,
+                            Executor executor) {
+        CompletableFuture<Void> futureWriteLogged =
+                futureWrite.exceptionally(ex -> {
+                    System.err.println(ex.getMessage());
+                    return null;
+                });
 
-        CompletableFuture<OptionalInt> futureMaxScore = future.thenApplyAsync(this::getMaxScore);
-        CompletableFuture<Optional<Result>> futureMaxGame = future.thenApplyAsync(this::getMaxGame);
-        CompletableFuture<String> futureMax = futureMaxScore.thenCombineAsync(futureMaxGame,
-                (score, result) ->
-                        String.format("Highest score: %d, Max Game: %s",
-                                score.orElse(0), result.orElse(null)));
+        CompletableFuture<GameSummary> futureSummary = future.thenApplyAsync(this::summarize, executor);
 
-        CompletableFuture.allOf(futureWrite, futureMax).join();
+        CompletableFuture.allOf(futureWriteLogged, futureSummary).join();
 
         future.join().forEach(System.out::println);
-        System.out.println(futureMax.join());
+        printSummary(futureSummary.join());
+    }
+
+    private void printSummary(GameSummary summary) {
+        System.out.println(String.format("Highest score: %d, Max Game: %s",
+                summary.getMaxScore().orElse(0), summary.getMaxGame().orElse(null)));
+        System.out.println(summary);
+    }
+
+    /**
+     * Streams the games through a {@link BoxscorePipeline}: each result is printed and
+     * saved as soon as it is retrieved, and only a running {@link GameSummary} is kept, so
+     * memory use does not grow with the number of days.
+     */
+    public void printGamesStreaming(LocalDate startDate, int days, Executor executor) {
+        GameSummary summary = new GameSummary();
+        BoxscorePipeline pipeline = new BoxscorePipeline(
+                new GamePageLinksSupplier(config, startDate, days), new BoxscoreRetriever(config), executor,
+                STREAMING_LINK_PARALLELISM, STREAMING_FETCH_PARALLELISM, STREAMING_QUEUE_CAPACITY);
+
+        pipeline.run(result -> {
+            System.out.println(result);
+            saveResultToFile(result);
+            synchronized (summary) {
+                summary.accept(result);
+            }
+        }).join();
+
+        printSummary(summary);
     }
 }
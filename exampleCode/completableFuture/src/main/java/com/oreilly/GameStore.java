@@ -0,0 +1,286 @@
+package com.oreilly;
+
+import com.oreilly.json.Boxscore;
+import com.oreilly.json.Linescore;
+import com.oreilly.json.Result;
+import com.oreilly.json.TeamRegistry;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Games held column by column: one int array each for the date (as an epoch day), the
+ * home and away team and the home and away runs. A game is a row index into the columns.
+ * Teams are stored as their {@link TeamRegistry#shared() registry} ids, so a team's name
+ * is stored once however many games it plays. This takes 20 bytes per game, against
+ * several objects and strings per game for a {@code List<Result>}, and queries are plain
+ * loops over primitive arrays.
+ *
+ * <p>Rows are sorted by date, so the games of a date range are a contiguous range of
+ * rows; see {@link #firstRowOn(LocalDate)}. A store is immutable once built.
+ */
+public class GameStore {
+    static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MMM d, yyyy", Locale.US);
+
+    private final int size;
+    private final int[] epochDays;
+    private final int[] homeTeams;
+    private final int[] awayTeams;
+    private final int[] homeRuns;
+    private final int[] awayRuns;
+    private final TeamRegistry teams = TeamRegistry.shared();
+
+    private GameStore(Builder builder) {
+        this.size = builder.size;
+        // order the rows by date; ties keep the order the games were added in
+        Integer[] order = new Integer[size];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, (a, b) -> Integer.compare(builder.epochDays[a], builder.epochDays[b]));
+        this.epochDays = permute(builder.epochDays, order);
+        this.homeTeams = permute(builder.homeTeams, order);
+        this.awayTeams = permute(builder.awayTeams, order);
+        this.homeRuns = permute(builder.homeRuns, order);
+        this.awayRuns = permute(builder.awayRuns, order);
+    }
+
+    private static int[] permute(int[] column, Integer[] order) {
+        int[] sorted = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            sorted[i] = column[order[i]];
+        }
+        return sorted;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static GameStore of(Stream<? extends Result> results) {
+        Builder builder = builder();
+        results.forEachOrdered(builder::add);
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String teamName(int teamId) {
+        return teams.teamName(teamId);
+    }
+
+    /**
+     * Returns the id of the team with the given full name, or -1 if no such team has been seen.
+     */
+    public int teamId(String name) {
+        return teams.find(name);
+    }
+
+    public int epochDay(int row) {
+        return epochDays[row];
+    }
+
+    public LocalDate date(int row) {
+        return LocalDate.ofEpochDay(epochDays[row]);
+    }
+
+    public int homeTeam(int row) {
+        return homeTeams[row];
+    }
+
+    public int awayTeam(int row) {
+        return awayTeams[row];
+    }
+
+    public int homeRuns(int row) {
+        return homeRuns[row];
+    }
+
+    public int awayRuns(int row) {
+        return awayRuns[row];
+    }
+
+    public int totalRuns(int row) {
+        return homeRuns[row] + awayRuns[row];
+    }
+
+    /**
+     * Returns the first row on or after {@code date}, or {@link #size()} if there is none.
+     * The games from {@code a} up to but excluding {@code b} are the rows
+     * {@code firstRowOn(a)} to {@code firstRowOn(b)}.
+     */
+    public int firstRowOn(LocalDate date) {
+        long day = date.toEpochDay();
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public OptionalInt maxTotalRuns() {
+        int row = maxGameRow();
+        return row < 0 ? OptionalInt.empty() : OptionalInt.of(totalRuns(row));
+    }
+
+    /**
+     * Returns the row of the highest-scoring game, the earliest on ties, or -1 if the store is empty.
+     */
+    public int maxGameRow() {
+        return maxGameRow(0, size);
+    }
+
+    public int maxGameRow(int fromRow, int toRow) {
+        int best = -1;
+        int bestRuns = Integer.MIN_VALUE;
+        for (int row = fromRow; row < toRow; row++) {
+            int runs = homeRuns[row] + awayRuns[row];
+            if (runs > bestRuns) {
+                bestRuns = runs;
+                best = row;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the runs scored by {@code teamId} over all its games.
+     */
+    public long runsFor(int teamId) {
+        long runs = 0;
+        for (int row = 0; row < size; row++) {
+            if (homeTeams[row] == teamId) {
+                runs += homeRuns[row];
+            } else if (awayTeams[row] == teamId) {
+                runs += awayRuns[row];
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Returns the runs allowed by {@code teamId} over all its games.
+     */
+    public long runsAgainst(int teamId) {
+        long runs = 0;
+        for (int row = 0; row < size; row++) {
+            if (homeTeams[row] == teamId) {
+                runs += awayRuns[row];
+            } else if (awayTeams[row] == teamId) {
+                runs += homeRuns[row];
+            }
+        }
+        return runs;
+    }
+
+    public int count(IntPredicate rowFilter) {
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (rowFilter.test(row)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Sums {@code value} over the rows that pass {@code rowFilter}, for example
+     * {@code sum(store::totalRuns, row -> store.homeTeam(row) == id)}.
+     */
+    public long sum(IntUnaryOperator value, IntPredicate rowFilter) {
+        long sum = 0;
+        for (int row = 0; row < size; row++) {
+            if (rowFilter.test(row)) {
+                sum += value.applyAsInt(row);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the first row with the highest {@code value} among the rows that pass
+     * {@code rowFilter}, or -1 if none does.
+     */
+    public int argMax(IntUnaryOperator value, IntPredicate rowFilter) {
+        int best = -1;
+        int bestValue = Integer.MIN_VALUE;
+        for (int row = 0; row < size; row++) {
+            if (rowFilter.test(row)) {
+                int v = value.applyAsInt(row);
+                if (best < 0 || v > bestValue) {
+                    bestValue = v;
+                    best = row;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Describes a game the way {@link Result#toString()} does.
+     */
+    public String toString(int row) {
+        return String.format("%s: %s %d, %s %d", DATE_FORMAT.format(date(row)),
+                teamName(awayTeams[row]), awayRuns[row], teamName(homeTeams[row]), homeRuns[row]);
+    }
+
+    /**
+     * Appends games to growing columns. Not thread safe.
+     */
+    public static class Builder {
+        private int size;
+        private int[] epochDays = new int[64];
+        private int[] homeTeams = new int[64];
+        private int[] awayTeams = new int[64];
+        private int[] homeRuns = new int[64];
+        private int[] awayRuns = new int[64];
+        private final Map<String, Integer> parsedDates = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder add(Result result) {
+            Boxscore boxscore = result.getData().getBoxscore();
+            Linescore linescore = boxscore.getLinescore();
+            if (size == epochDays.length) {
+                int capacity = size * 2;
+                epochDays = Arrays.copyOf(epochDays, capacity);
+                homeTeams = Arrays.copyOf(homeTeams, capacity);
+                awayTeams = Arrays.copyOf(awayTeams, capacity);
+                homeRuns = Arrays.copyOf(homeRuns, capacity);
+                awayRuns = Arrays.copyOf(awayRuns, capacity);
+            }
+            epochDays[size] = epochDay(boxscore.getDate());
+            homeTeams[size] = boxscore.getHomeTeamId();
+            awayTeams[size] = boxscore.getAwayTeamId();
+            homeRuns[size] = linescore.getHomeRuns();
+            awayRuns[size] = linescore.getAwayRuns();
+            size++;
+            return this;
+        }
+
+        // a season has a few hundred distinct dates, so each is parsed once
+        private int epochDay(String date) {
+            return parsedDates.computeIfAbsent(date,
+                    d -> Math.toIntExact(LocalDate.parse(d, DATE_FORMAT).toEpochDay()));
+        }
+
+        public GameStore build() {
+            return new GameStore(this);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.oreilly;
+
+import com.oreilly.json.Boxscore;
+import com.oreilly.json.Linescore;
+import com.oreilly.json.Result;
+import com.oreilly.json.TeamRegistry;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.stream.Collector;
+
+/**
+ * Statistics over a set of games, gathered in one pass: the number of games, the
+ * highest, lowest and mean total score, the highest-scoring game, and the runs each
+ * team scored and allowed.
+ *
+ * <p>Use {@link #collector()} on a sequential or parallel stream of results. Partial
+ * summaries of a parallel stream are merged in encounter order, so ties for the
+ * highest-scoring game go to the first such game either way. A summary is not thread
+ * safe; guard {@link #accept(Result)} when results arrive on several threads.
+ */
+public class GameSummary {
+    private long games;
+    private long totalRuns;
+    private int maxScore = Integer.MIN_VALUE;
+    private int minScore = Integer.MAX_VALUE;
+    private Result maxGame;
+    private TeamRuns[] teams = new TeamRuns[32]; // by team id
+
+    public static Collector<Result, ?, GameSummary> collector() {
+        return Collector.of(GameSummary::new, GameSummary::accept, GameSummary::combine);
+    }
+
+    public void accept(Result result) {
+        Boxscore boxscore = result.getData().getBoxscore();
+        Linescore linescore = boxscore.getLinescore();
+        int home = linescore.getHomeRuns();
+        int away = linescore.getAwayRuns();
+        int score = home + away;
+
+        games++;
+        totalRuns += score;
+        if (score > maxScore) {
+            maxScore = score;
+            maxGame = result;
+        }
+        minScore = Math.min(minScore, score);
+        int homeTeam = boxscore.getHomeTeamId();
+        int awayTeam = boxscore.getAwayTeamId();
+        if (homeTeam >= 0) {
+            team(homeTeam).add(home, away);
+        }
+        if (awayTeam >= 0) {
+            team(awayTeam).add(away, home);
+        }
+    }
+
+    /**
+     * Adds the games of {@code other}, which come after the games of this summary.
+     */
+    public GameSummary combine(GameSummary other) {
+        games += other.games;
+        totalRuns += other.totalRuns;
+        if (other.maxScore > maxScore) {
+            maxScore = other.maxScore;
+            maxGame = other.maxGame;
+        }
+        minScore = Math.min(minScore, other.minScore);
+        for (int id = 0; id < other.teams.length; id++) {
+            if (other.teams[id] != null) {
+                team(id).add(other.teams[id]);
+            }
+        }
+        return this;
+    }
+
+    private TeamRuns team(int id) {
+        if (id >= teams.length) {
+            teams = Arrays.copyOf(teams, Math.max(id + 1, teams.length * 2));
+        }
+        TeamRuns runs = teams[id];
+        if (runs == null) {
+            teams[id] = runs = new TeamRuns();
+        }
+        return runs;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public OptionalInt getMaxScore() {
+        return games == 0 ? OptionalInt.empty() : OptionalInt.of(maxScore);
+    }
+
+    public OptionalInt getMinScore() {
+        return games == 0 ? OptionalInt.empty() : OptionalInt.of(minScore);
+    }
+
+    public OptionalDouble getMeanScore() {
+        return games == 0 ? OptionalDouble.empty() : OptionalDouble.of((double) totalRuns / games);
+    }
+
+    public Optional<Result> getMaxGame() {
+        return Optional.ofNullable(maxGame);
+    }
+
+    /**
+     * Returns the runs of each team, by full team name.
+     */
+    public Map<String, TeamRuns> getTeams() {
+        TeamRegistry registry = TeamRegistry.shared();
+        Map<String, TeamRuns> byName = new LinkedHashMap<>();
+        for (int id = 0; id < teams.length; id++) {
+            if (teams[id] != null) {
+                byName.put(registry.teamName(id), teams[id]);
+            }
+        }
+        return Collections.unmodifiableMap(byName);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Games: %d, Highest score: %d, Lowest score: %d, Mean score: %.2f",
+                games, getMaxScore().orElse(0), getMinScore().orElse(0), getMeanScore().orElse(0));
+    }
+
+    /**
+     * The games a team played and the runs it scored and allowed in them.
+     */
+    public static class TeamRuns {
+        private int games;
+        private long runsFor;
+        private long runsAgainst;
+
+        private void add(int scored, int allowed) {
+            games++;
+            runsFor += scored;
+            runsAgainst += allowed;
+        }
+
+        private void add(TeamRuns other) {
+            games += other.games;
+            runsFor += other.runsFor;
+            runsAgainst += other.runsAgainst;
+        }
+
+        public int getGames() {
+            return games;
+        }
+
+        public long getRunsFor() {
+            return runsFor;
+        }
+
+        public long getRunsAgainst() {
+            return runsAgainst;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d games, %d runs for, %d against", games, runsFor, runsAgainst);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.oreilly;
+
+import okhttp3.Cache;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A size-bounded on-disk HTTP cache for gd2.mlb.com. Boxscores and day index pages of
+ * past dates never change, so their successful responses are marked as cacheable for a
+ * year whatever headers the server sends, and re-runs over those dates are served from
+ * disk without a network round-trip. Pages of the last {@code settleDays} days are left
+ * to the server's own cache headers, since games may still be in progress or corrected.
+ *
+ * <p>The cache is keyed by URL and evicts least recently used entries once it exceeds
+ * its maximum size.
+ */
+public class HistoricalDataCache implements Interceptor {
+    private static final Pattern DATE_IN_URL =
+            Pattern.compile("/year_(\\d{4})/month_(\\d{2})/day_(\\d{2})");
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    private final Cache cache;
+    private final Clock clock;
+    private final int settleDays;
+
+    public HistoricalDataCache(Path dir, long maxBytes) {
+        this(dir, maxBytes, Clock.systemDefaultZone(), 2);
+    }
+
+    public HistoricalDataCache(Path dir, long maxBytes, Clock clock, int settleDays) {
+        this.cache = new Cache(dir.toFile(), maxBytes);
+        this.clock = clock;
+        this.settleDays = settleDays;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    /**
+     * Adds the cache to {@code builder}.
+     */
+    public OkHttpClient.Builder install(OkHttpClient.Builder builder) {
+        return builder.cache(cache).addNetworkInterceptor(this);
+    }
+
+    public OkHttpClient newClient() {
+        return install(new OkHttpClient.Builder()).build();
+    }
+
+    boolean isHistorical(String path) {
+        Matcher matcher = DATE_IN_URL.matcher(path);
+        if (!matcher.find()) {
+            return false;
+        }
+        LocalDate date = LocalDate.of(Integer.parseInt(matcher.group(1)),
+                Integer.parseInt(matcher.group(2)), Integer.parseInt(matcher.group(3)));
+        return date.isBefore(LocalDate.now(clock).minusDays(settleDays));
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+        if (!response.isSuccessful() || !isHistorical(chain.request().url().encodedPath())) {
+            return response;
+        }
+        return response.newBuilder()
+                .removeHeader("Pragma")
+                .removeHeader("Expires")
+                .header("Cache-Control", IMMUTABLE)
+                .build();
+    }
+}
@@ -0,0 +1,316 @@
+package com.oreilly;
+
+import okhttp3.Cache;
+import okhttp3.CacheControl;
+import okhttp3.Call;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps outbound requests within a rate and a concurrency limit per host. Each host has a
+ * token bucket of {@code ratePerSecond} permits, holding at most {@code burst}, and a cap
+ * on requests in flight. Requests over either limit wait until a permit is available.
+ *
+ * <p>Both limits adapt to the server (additive increase, multiplicative decrease). A 429
+ * or 503 response, or one slower than the latency target, halves the host's rate and
+ * concurrency, at most once per round trip. Every other response raises them a little
+ * again, up to the configured maximum. A {@code Retry-After} header on a 429 or 503 also
+ * drains the bucket for that long.
+ *
+ * <p>Install one throttle on the client shared by {@link GamePageLinksSupplier} and
+ * {@link BoxscoreRetriever} (see {@link HttpClientConfig.Builder#throttle}) so that both
+ * stages draw on the same budget. It runs as an application interceptor and counts a
+ * request as in flight until its response body is closed, so a waiting request holds no
+ * connection and the concurrency limit also bounds the connections opened to the host.
+ * Given the client's {@link Cache}, it first asks the cache for a fresh response, so
+ * pages served from a {@link HistoricalDataCache} are not throttled.
+ */
+public class HostThrottle implements Interceptor {
+    private static final double DECREASE = 0.5;
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    // fresh cached responses only; a stale one still goes to the server, through the throttle
+    private static final CacheControl CACHE_ONLY = new CacheControl.Builder().onlyIfCached().build();
+
+    private final Limits defaults;
+    private final Map<String, Limits> hosts;
+    private final long latencyTargetNanos;
+    private final ConcurrentMap<String, HostLimiter> limiters = new ConcurrentHashMap<>();
+
+    private HostThrottle(Builder builder) {
+        this.defaults = builder.defaults;
+        this.hosts = new HashMap<>(builder.hosts);
+        this.latencyTargetNanos = builder.latencyTarget == null ? Long.MAX_VALUE : builder.latencyTarget.toNanos();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Adds the throttle to {@code builder}, for a client without a cache.
+     */
+    public OkHttpClient.Builder install(OkHttpClient.Builder builder) {
+        return builder.addInterceptor(this);
+    }
+
+    /**
+     * Adds the throttle to {@code builder}, letting requests that {@code cache} can answer
+     * through without waiting. {@code cache} must be the cache of the same client.
+     */
+    public OkHttpClient.Builder install(OkHttpClient.Builder builder, Cache cache) {
+        return builder.addInterceptor(chain -> {
+            Request request = chain.request();
+            if (cache != null && request.method().equals("GET") && !request.cacheControl().noCache()) {
+                Response cached = chain.proceed(request.newBuilder().cacheControl(CACHE_ONLY).build());
+                if (cached.cacheResponse() != null) {
+                    return cached;
+                }
+                cached.close();
+            }
+            return intercept(chain);
+        });
+    }
+
+    /**
+     * Returns the current concurrency limit for {@code host}.
+     */
+    public int getConcurrencyLimit(String host) {
+        return limiter(host).concurrencyLimit();
+    }
+
+    /**
+     * Returns the current rate limit for {@code host}, in requests per second.
+     */
+    public double getRate(String host) {
+        return limiter(host).rate();
+    }
+
+    private HostLimiter limiter(String host) {
+        return limiters.computeIfAbsent(host, h -> new HostLimiter(hosts.getOrDefault(h, defaults)));
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        HostLimiter limiter = limiter(chain.request().url().host());
+        long start = limiter.acquire(chain.call());
+        Response response;
+        try {
+            response = chain.proceed(chain.request());
+        } catch (IOException | RuntimeException e) {
+            limiter.release();
+            throw e;
+        }
+        boolean throttled = response.code() == 429 || response.code() == 503;
+        boolean slow = System.nanoTime() - start > latencyTargetNanos;
+        limiter.adjust(start, throttled || slow,
+                throttled ? retryAfterNanos(response.header("Retry-After")) : 0);
+        return releaseOnClose(response, limiter);
+    }
+
+    // the request holds its slot, and its connection, until the body has been read and closed
+    private static Response releaseOnClose(Response response, HostLimiter limiter) {
+        ResponseBody body = response.body();
+        if (body == null) {
+            limiter.release();
+            return response;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        BufferedSource source = Okio.buffer(new ForwardingSource(body.source()) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    if (released.compareAndSet(false, true)) {
+                        limiter.release();
+                    }
+                }
+            }
+        });
+        return response.newBuilder()
+                .body(ResponseBody.create(body.contentType(), body.contentLength(), source))
+                .build();
+    }
+
+    private static long retryAfterNanos(String retryAfter) {
+        if (retryAfter == null) {
+            return 0;
+        }
+        try {
+            return TimeUnit.SECONDS.toNanos(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException e) {
+            // an HTTP date; the halved rate has to do
+            return 0;
+        }
+    }
+
+    /**
+     * The most a host is allowed: a rate in requests per second with a burst size, and a
+     * number of requests in flight.
+     */
+    public static final class Limits {
+        private final double ratePerSecond;
+        private final int burst;
+        private final int maxConcurrency;
+
+        private Limits(double ratePerSecond, int burst, int maxConcurrency) {
+            this.ratePerSecond = ratePerSecond;
+            this.burst = burst;
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public static Limits of(double ratePerSecond, int burst, int maxConcurrency) {
+            if (!(ratePerSecond > 0) || burst < 1 || maxConcurrency < 1) {
+                throw new IllegalArgumentException("limits must be positive");
+            }
+            return new Limits(ratePerSecond, burst, maxConcurrency);
+        }
+
+        public double getRatePerSecond() {
+            return ratePerSecond;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+    }
+
+    private static final class HostLimiter {
+        private final Limits limits;
+        private final double minRate;
+
+        // guarded by this
+        private double rate;
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+        private double concurrencyLimit;
+        private int inFlight;
+        private long decreasedAt = refilledAt;
+
+        HostLimiter(Limits limits) {
+            this.limits = limits;
+            this.minRate = Math.min(1, limits.ratePerSecond);
+            this.rate = limits.ratePerSecond;
+            this.tokens = limits.burst;
+            this.concurrencyLimit = limits.maxConcurrency;
+        }
+
+        synchronized int concurrencyLimit() {
+            return (int) concurrencyLimit;
+        }
+
+        synchronized double rate() {
+            return rate;
+        }
+
+        // waits for a token and a free slot, and returns the time the request started
+        synchronized long acquire(Call call) throws IOException {
+            while (true) {
+                long now = System.nanoTime();
+                refill(now);
+                boolean slotFree = inFlight < (int) concurrencyLimit;
+                if (slotFree && tokens >= 1) {
+                    tokens -= 1;
+                    inFlight++;
+                    return now;
+                }
+                if (call.isCanceled()) {
+                    throw new IOException("Canceled");
+                }
+                long waitNanos = slotFree ? (long) ((1 - tokens) / rate * 1e9) : POLL_NANOS;
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this, Math.max(1, Math.min(waitNanos, POLL_NANOS)));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("interrupted waiting for " + call.request().url().host());
+                }
+            }
+        }
+
+        synchronized void release() {
+            inFlight--;
+            notifyAll();
+        }
+
+        // a request that failed without a response tells nothing about the limits, so this
+        // is only called with a response
+        synchronized void adjust(long start, boolean congested, long retryAfterNanos) {
+            if (congested) {
+                // requests sent before the last decrease saw the old limits; don't punish twice
+                if (start - decreasedAt >= 0) {
+                    decreasedAt = System.nanoTime();
+                    concurrencyLimit = Math.max(1, concurrencyLimit * DECREASE);
+                    rate = Math.max(minRate, rate * DECREASE);
+                }
+                if (retryAfterNanos > 0) {
+                    refill(System.nanoTime());
+                    tokens = Math.min(tokens, -rate * retryAfterNanos / 1e9);
+                }
+            } else {
+                concurrencyLimit = Math.min(limits.maxConcurrency, concurrencyLimit + 1 / concurrencyLimit);
+                rate = Math.min(limits.ratePerSecond, rate + limits.ratePerSecond / 100);
+            }
+            notifyAll();
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(limits.burst, tokens + (now - refilledAt) * rate / 1e9);
+            refilledAt = now;
+        }
+    }
+
+    public static class Builder {
+        private Limits defaults = Limits.of(20, 10, 5);
+        private final Map<String, Limits> hosts = new HashMap<>();
+        private Duration latencyTarget;
+
+        private Builder() {
+        }
+
+        /**
+         * Limits for hosts without their own.
+         */
+        public Builder defaults(Limits defaults) {
+            this.defaults = defaults;
+            return this;
+        }
+
+        public Builder host(String host, Limits limits) {
+            hosts.put(host, limits);
+            return this;
+        }
+
+        /**
+         * Treats a response slower than {@code latencyTarget} as a sign of congestion.
+         * By default only 429 and 503 responses are.
+         */
+        public Builder latencyTarget(Duration latencyTarget) {
+            this.latencyTarget = latencyTarget;
+            return this;
+        }
+
+        public HostThrottle build() {
+            return new HostThrottle(this);
+        }
+    }
+}
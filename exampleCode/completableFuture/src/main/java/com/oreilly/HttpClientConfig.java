@@ -0,0 +1,185 @@
+package com.oreilly;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection settings for the gd2.mlb.com clients. The {@link OkHttpClient} is built once
+ * per config and shared by every {@link BoxscoreRetriever} and {@link GamePageLinksSupplier}
+ * created from it, so they reuse one connection pool and one dispatcher.
+ *
+ * <p>The builder's defaults are OkHttp's own, which allow only 5 concurrent requests per
+ * host; raise {@code maxRequestsPerHost} and {@code maxIdleConnections} together for high
+ * fan-out backfills, so the extra connections are kept alive between requests.
+ * {@link #defaults()} already does so, allowing 64.
+ * gd2 is served over plain HTTP, so OkHttp negotiates HTTP/1.1 and concurrency comes
+ * from the pool size rather than HTTP/2 multiplexing. To stay polite to the server as well,
+ * add a {@link HostThrottle}.
+ */
+public class HttpClientConfig {
+    static final int DEFAULT_MAX_REQUESTS_PER_HOST = 64;
+    private static final HttpClientConfig DEFAULT = builder()
+            .maxRequestsPerHost(DEFAULT_MAX_REQUESTS_PER_HOST)
+            .maxIdleConnections(DEFAULT_MAX_REQUESTS_PER_HOST)
+            .build();
+
+    private final String baseUrl;
+    private final int maxIdleConnections;
+    private final Duration keepAlive;
+    private final int maxRequests;
+    private final int maxRequestsPerHost;
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+    private final Duration writeTimeout;
+    private final HistoricalDataCache cache;
+    private final HostThrottle throttle;
+
+    private volatile OkHttpClient client;
+
+    private HttpClientConfig(Builder builder) {
+        this.baseUrl = builder.baseUrl;
+        this.maxIdleConnections = builder.maxIdleConnections;
+        this.keepAlive = builder.keepAlive;
+        this.maxRequests = builder.maxRequests;
+        this.maxRequestsPerHost = builder.maxRequestsPerHost;
+        this.connectTimeout = builder.connectTimeout;
+        this.readTimeout = builder.readTimeout;
+        this.writeTimeout = builder.writeTimeout;
+        this.cache = builder.cache;
+        this.throttle = builder.throttle;
+    }
+
+    /**
+     * The shared config for gd2.mlb.com with OkHttp's default settings, except that it
+     * allows as many requests per host as {@link BoxscoreRetriever#applyAsync(List)} keeps
+     * in flight, and keeps that many connections alive.
+     */
+    public static HttpClientConfig defaults() {
+        return DEFAULT;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Returns the client for this config, building it on first use.
+     */
+    public OkHttpClient client() {
+        OkHttpClient result = client;
+        if (result == null) {
+            synchronized (this) {
+                result = client;
+                if (result == null) {
+                    client = result = buildClient();
+                }
+            }
+        }
+        return result;
+    }
+
+    private OkHttpClient buildClient() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAlive.toMillis(), TimeUnit.MILLISECONDS))
+                .connectTimeout(connectTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .writeTimeout(writeTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        if (cache != null) {
+            cache.install(builder);
+        }
+        if (throttle != null) {
+            throttle.install(builder, cache == null ? null : cache.getCache());
+        }
+        return builder.build();
+    }
+
+    public static class Builder {
+        private String baseUrl = GamePageLinksSupplier.BASE;
+        private int maxIdleConnections = 5;
+        private Duration keepAlive = Duration.ofMinutes(5);
+        private int maxRequests = 64;
+        private int maxRequestsPerHost = 5;
+        private Duration connectTimeout = Duration.ofSeconds(10);
+        private Duration readTimeout = Duration.ofSeconds(10);
+        private Duration writeTimeout = Duration.ofSeconds(10);
+        private HistoricalDataCache cache;
+        private HostThrottle throttle;
+
+        private Builder() {
+        }
+
+        public Builder baseUrl(String baseUrl) {
+            this.baseUrl = baseUrl;
+            return this;
+        }
+
+        public Builder maxIdleConnections(int maxIdleConnections) {
+            this.maxIdleConnections = maxIdleConnections;
+            return this;
+        }
+
+        public Builder keepAlive(Duration keepAlive) {
+            this.keepAlive = keepAlive;
+            return this;
+        }
+
+        public Builder maxRequests(int maxRequests) {
+            this.maxRequests = maxRequests;
+            return this;
+        }
+
+        public Builder maxRequestsPerHost(int maxRequestsPerHost) {
+            this.maxRequestsPerHost = maxRequestsPerHost;
+            return this;
+        }
+
+        public Builder connectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        public Builder readTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+            return this;
+        }
+
+        public Builder writeTimeout(Duration writeTimeout) {
+            this.writeTimeout = writeTimeout;
+            return this;
+        }
+
+        public Builder cache(HistoricalDataCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        /**
+         * Limits the rate and concurrency of requests per host; see {@link HostThrottle}.
+         */
+        public Builder throttle(HostThrottle throttle) {
+            this.throttle = throttle;
+            return this;
+        }
+
+        public HttpClientConfig build() {
+            if (maxRequests < 1 || maxRequestsPerHost < 1 || maxIdleConnections < 0) {
+                throw new IllegalArgumentException("request limits must be positive");
+            }
+            return new HttpClientConfig(this);
+        }
+    }
+}
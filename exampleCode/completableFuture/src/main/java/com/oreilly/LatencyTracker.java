@@ -0,0 +1,46 @@
+package com.oreilly;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the most recent request latencies in a ring buffer and reports percentiles of them.
+ * Percentiles are recomputed at most once every {@code RECOMPUTE_EVERY} samples.
+ */
+class LatencyTracker {
+    private static final int RECOMPUTE_EVERY = 32;
+
+    private final long[] samples;
+    private final int minSamples;
+    private int count;
+    private int next;
+    private long[] sorted = new long[0];
+    private int sortedAt = -RECOMPUTE_EVERY;
+
+    LatencyTracker(int capacity, int minSamples) {
+        this.samples = new long[capacity];
+        this.minSamples = minSamples;
+    }
+
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count++;
+    }
+
+    /**
+     * Returns the given percentile of the recorded latencies, or -1 while there are
+     * fewer than the minimum number of samples.
+     */
+    synchronized long percentile(double p) {
+        if (count < minSamples) {
+            return -1;
+        }
+        if (count - sortedAt >= RECOMPUTE_EVERY) {
+            sorted = Arrays.copyOf(samples, Math.min(count, samples.length));
+            Arrays.sort(sorted);
+            sortedAt = count;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
@@ -0,0 +1,195 @@
+package com.oreilly;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Runs a request under a {@link RetryPolicy} without blocking: each attempt is enqueued on
+ * OkHttp's dispatcher, and deadlines, hedges and back-offs are scheduled on a shared timer.
+ *
+ * <p>An attempt ends with the first final response from any of its calls. It fails when
+ * all of its calls have failed or its deadline passes, in which case its calls are
+ * cancelled and the next attempt is scheduled after a jittered back-off. When every
+ * attempt has failed the result is empty.
+ */
+class ResilientFetcher {
+    private static final ScheduledThreadPoolExecutor TIMER = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread thread = new Thread(r, "resilient-fetcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        TIMER.setRemoveOnCancelPolicy(true);
+    }
+
+    private final OkHttpClient client;
+    private final RetryPolicy policy;
+    private final LatencyTracker latencies = new LatencyTracker(1024, 20);
+
+    ResilientFetcher(OkHttpClient client, RetryPolicy policy) {
+        this.client = client;
+        this.policy = policy;
+    }
+
+    /**
+     * Fetches {@code request}, passing the first final response to {@code handler} on
+     * OkHttp's callback thread. The response is closed afterwards.
+     */
+    <T> CompletableFuture<Optional<T>> fetch(Request request, Function<Response, Optional<T>> handler) {
+        CompletableFuture<Optional<T>> result = new CompletableFuture<>();
+        new Attempt<>(request, handler, result, 1).start();
+        return result;
+    }
+
+    private class Attempt<T> {
+        private final Request request;
+        private final Function<Response, Optional<T>> handler;
+        private final CompletableFuture<Optional<T>> result;
+        private final int number;
+
+        // guarded by this
+        private final List<Call> calls = new ArrayList<>();
+        private int pending;
+        private boolean done;
+        private boolean expired;
+        private ScheduledFuture<?> deadline;
+        private ScheduledFuture<?> hedge;
+
+        Attempt(Request request, Function<Response, Optional<T>> handler,
+                CompletableFuture<Optional<T>> result, int number) {
+            this.request = request;
+            this.handler = handler;
+            this.result = result;
+            this.number = number;
+        }
+
+        synchronized void start() {
+            launch();
+            if (policy.getAttemptTimeout() != null) {
+                deadline = TIMER.schedule(this::expire,
+                        policy.getAttemptTimeout().toNanos(), TimeUnit.NANOSECONDS);
+            }
+            if (policy.isHedging()) {
+                long delay = policy.hedgeDelayNanos(latencies.percentile(policy.getHedgePercentile()));
+                if (delay >= 0) {
+                    hedge = TIMER.schedule(this::hedge, delay, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+
+        // guarded by this
+        private void launch() {
+            Call call = client.newCall(request);
+            calls.add(call);
+            pending++;
+            long start = System.nanoTime();
+            call.enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    failed(e);
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) {
+                    if (RetryPolicy.isRetryable(response.code())) {
+                        response.close();
+                        failed(new IOException("HTTP " + response.code()));
+                        return;
+                    }
+                    if (!finish(call)) {
+                        // the attempt already has a winner, or its deadline cancelled this call
+                        response.close();
+                        failed(new IOException("Attempt timed out"));
+                        return;
+                    }
+                    if (response.isSuccessful()) {
+                        latencies.record(System.nanoTime() - start);
+                    }
+                    try (Response r = response) {
+                        result.complete(handler.apply(r));
+                    } catch (RuntimeException e) {
+                        result.completeExceptionally(e);
+                    }
+                }
+            });
+        }
+
+        private synchronized void hedge() {
+            if (!done && !expired) {
+                launch();
+            }
+        }
+
+        private void expire() {
+            List<Call> toCancel;
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                expired = true;
+                toCancel = new ArrayList<>(calls);
+            }
+            // each cancelled call reports a failure, which ends the attempt
+            toCancel.forEach(Call::cancel);
+        }
+
+        // claims the attempt for a final response and cancels the other calls; an attempt
+        // past its deadline cannot be claimed, since its calls are being cancelled
+        private boolean finish(Call winner) {
+            List<Call> others;
+            synchronized (this) {
+                if (done || expired) {
+                    return false;
+                }
+                done = true;
+                stopTimers();
+                others = new ArrayList<>(calls);
+                others.remove(winner);
+            }
+            others.forEach(Call::cancel);
+            return true;
+        }
+
+        private void failed(IOException e) {
+            synchronized (this) {
+                if (done || --pending > 0) {
+                    return;
+                }
+                done = true;
+                stopTimers();
+            }
+            if (number < policy.getMaxAttempts()) {
+                Attempt<T> next = new Attempt<>(request, handler, result, number + 1);
+                TIMER.schedule(next::start, policy.backoffNanos(number + 1), TimeUnit.NANOSECONDS);
+            } else {
+                System.out.println("Giving up on " + request.url() + " after "
+                        + number + " attempts: " + e.getMessage());
+                result.complete(Optional.empty());
+            }
+        }
+
+        // guarded by this
+        private void stopTimers() {
+            if (deadline != null) {
+                deadline.cancel(false);
+            }
+            if (hedge != null) {
+                hedge.cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.oreilly;
+
+import com.oreilly.json.Result;
+
+import java.io.IOException;
+
+/**
+ * Where {@link GamePageParser} saves retrieved results. Implementations must be thread safe.
+ */
+public interface ResultSink {
+    void save(Result result) throws IOException;
+}
@@ -0,0 +1,76 @@
+package com.oreilly;
+
+import com.google.gson.Gson;
+import com.oreilly.json.Boxscore;
+import com.oreilly.json.BoxscoreGson;
+import com.oreilly.json.Result;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.regex.Pattern;
+
+/**
+ * Writes each result to its own JSON file. The Gson instances are thread safe and
+ * shared, the JSON is streamed straight into a buffered writer, and the output
+ * directory is created on the first write only.
+ */
+public class ResultWriter implements ResultSink {
+    private static final Gson PRETTY = BoxscoreGson.builder().setPrettyPrinting().create();
+    private static final Gson COMPACT = BoxscoreGson.get();
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern COMMA = Pattern.compile(",");
+
+    private final Path dir;
+    private final Gson gson;
+    private volatile boolean dirCreated;
+
+    public ResultWriter() {
+        this(Paths.get("build/data"), true);
+    }
+
+    public ResultWriter(Path dir, boolean prettyPrinting) {
+        this.dir = dir.toAbsolutePath();
+        this.gson = prettyPrinting ? PRETTY : COMPACT;
+    }
+
+    public Path getDir() {
+        return dir;
+    }
+
+    public static String fileName(Result result) {
+        Boxscore boxscore = result.getData().getBoxscore();
+        String fileName = String.format("%s_%s_at_%s.txt",
+                boxscore.getDate(), boxscore.getAwayFname(), boxscore.getHomeFname());
+        fileName = WHITESPACE.matcher(fileName).replaceAll("_");
+        return COMMA.matcher(fileName).replaceAll("");
+    }
+
+    public Path write(Result result) throws IOException {
+        createDirOnce();
+        Path file = dir.resolve(fileName(result));
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            gson.toJson(result, writer);
+        }
+        return file;
+    }
+
+    @Override
+    public void save(Result result) throws IOException {
+        write(result);
+    }
+
+    private void createDirOnce() throws IOException {
+        if (!dirCreated) {
+            synchronized (this) {
+                if (!dirCreated) {
+                    Files.createDirectories(dir);
+                    dirCreated = true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.oreilly;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How {@link BoxscoreRetriever} copes with slow or failing responses: how many attempts
+ * to make, how long to back off between them, how long one attempt may take, and whether
+ * to hedge a slow attempt with a second identical request.
+ *
+ * <p>Connection failures, timeouts, 408, 429 and 5xx responses are retried; other
+ * responses, such as the 404 for a game without a boxscore, are final.
+ */
+public class RetryPolicy {
+    private static final RetryPolicy NONE = builder().maxAttempts(1).build();
+
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration attemptTimeout;
+    private final boolean hedging;
+    private final Duration hedgeDelay;
+    private final double hedgePercentile;
+    private final Duration minHedgeDelay;
+
+    private RetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.initialBackoff = builder.initialBackoff;
+        this.maxBackoff = builder.maxBackoff;
+        this.attemptTimeout = builder.attemptTimeout;
+        this.hedging = builder.hedging;
+        this.hedgeDelay = builder.hedgeDelay;
+        this.hedgePercentile = builder.hedgePercentile;
+        this.minHedgeDelay = builder.minHedgeDelay;
+    }
+
+    /**
+     * A single attempt with no deadline and no hedging: the behaviour without a policy.
+     */
+    public static RetryPolicy none() {
+        return NONE;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Returns the timeout per attempt, or {@code null} for none.
+     */
+    public Duration getAttemptTimeout() {
+        return attemptTimeout;
+    }
+
+    public boolean isHedging() {
+        return hedging;
+    }
+
+    public double getHedgePercentile() {
+        return hedgePercentile;
+    }
+
+    /**
+     * Returns the delay before an attempt is hedged: the fixed delay if one was set,
+     * otherwise the given observed latency percentile, never below the minimum hedge delay.
+     * Returns -1, for no hedge, while the percentile is not known yet (negative).
+     */
+    long hedgeDelayNanos(long observedPercentileNanos) {
+        if (hedgeDelay != null) {
+            return hedgeDelay.toNanos();
+        }
+        if (observedPercentileNanos < 0) {
+            return -1;
+        }
+        return Math.max(observedPercentileNanos, minHedgeDelay.toNanos());
+    }
+
+    /**
+     * Returns the jittered back-off before attempt {@code attempt} (2 or more): half of the
+     * exponential delay plus a random share of the other half, capped at the maximum back-off.
+     */
+    long backoffNanos(int attempt) {
+        long base = initialBackoff.toNanos();
+        long max = maxBackoff.toNanos();
+        long delay = base;
+        for (int i = 2; i < attempt && delay < max; i++) {
+            delay *= 2;
+        }
+        delay = Math.min(delay, max);
+        long half = delay / 2;
+        return half + (half > 0 ? ThreadLocalRandom.current().nextLong(half + 1) : 0);
+    }
+
+    static boolean isRetryable(int code) {
+        return code == 408 || code == 429 || code >= 500;
+    }
+
+    public static class Builder {
+        private int maxAttempts = 3;
+        private Duration initialBackoff = Duration.ofMillis(200);
+        private Duration maxBackoff = Duration.ofSeconds(5);
+        private Duration attemptTimeout;
+        private boolean hedging;
+        private Duration hedgeDelay;
+        private double hedgePercentile = 0.95;
+        private Duration minHedgeDelay = Duration.ofMillis(50);
+
+        private Builder() {
+        }
+
+        public Builder maxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        public Builder initialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+            return this;
+        }
+
+        public Builder maxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+            return this;
+        }
+
+        public Builder attemptTimeout(Duration attemptTimeout) {
+            this.attemptTimeout = attemptTimeout;
+            return this;
+        }
+
+        /**
+         * Sends a second request when an attempt has taken longer than {@code delay}.
+         */
+        public Builder hedgeAfter(Duration delay) {
+            this.hedging = true;
+            this.hedgeDelay = delay;
+            return this;
+        }
+
+        /**
+         * Sends a second request when an attempt has taken longer than the given percentile
+         * of recently observed latencies (but at least {@code minDelay}). Until 20 successful
+         * requests have been timed the percentile is unknown, and nothing is hedged, so a
+         * cold start does not send its whole first wave twice.
+         */
+        public Builder hedgeAtPercentile(double percentile, Duration minDelay) {
+            this.hedging = true;
+            this.hedgeDelay = null;
+            this.hedgePercentile = percentile;
+            this.minHedgeDelay = minDelay;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException("maxAttempts must be positive: " + maxAttempts);
+            }
+            if (hedgePercentile <= 0 || hedgePercentile >= 1) {
+                throw new IllegalArgumentException("percentile must be between 0 and 1: " + hedgePercentile);
+            }
+            return new RetryPolicy(this);
+        }
+    }
+}
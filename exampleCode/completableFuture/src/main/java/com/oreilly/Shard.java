@@ -0,0 +1,88 @@
+package com.oreilly;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A unit of backfill work in a {@link ShardQueue}: either a range of days, or a list of
+ * game links such as {@code gid_2017_05_05_arimlb_colmlb_1/}.
+ *
+ * <p>A shard is stored as text: {@code start=} and {@code days=} lines for a range of
+ * days, or one game link per line.
+ */
+public class Shard {
+    private final String id;
+    private final LocalDate startDate;
+    private final int days;
+    private final List<String> games;
+
+    private Shard(String id, LocalDate startDate, int days, List<String> games) {
+        this.id = id;
+        this.startDate = startDate;
+        this.days = days;
+        this.games = games;
+    }
+
+    public static Shard ofDays(String id, LocalDate startDate, int days) {
+        return new Shard(id, startDate, days, Collections.emptyList());
+    }
+
+    public static Shard ofGames(String id, List<String> games) {
+        return new Shard(id, null, 0, Collections.unmodifiableList(new ArrayList<>(games)));
+    }
+
+    static Shard parse(String id, List<String> lines) {
+        LocalDate startDate = null;
+        int days = 0;
+        List<String> games = new ArrayList<>();
+        for (String line : lines) {
+            if (line.startsWith("start=")) {
+                startDate = LocalDate.parse(line.substring("start=".length()));
+            } else if (line.startsWith("days=")) {
+                days = Integer.parseInt(line.substring("days=".length()));
+            } else if (!line.isEmpty()) {
+                games.add(line);
+            }
+        }
+        return startDate != null ? ofDays(id, startDate, days) : ofGames(id, games);
+    }
+
+    List<String> toLines() {
+        if (isDays()) {
+            List<String> lines = new ArrayList<>();
+            lines.add("start=" + startDate);
+            lines.add("days=" + days);
+            return lines;
+        }
+        return games;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public boolean isDays() {
+        return startDate != null;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public List<String> getGames() {
+        return games;
+    }
+
+    @Override
+    public String toString() {
+        return isDays()
+                ? String.format("%s: %d days from %s", id, days, startDate)
+                : String.format("%s: %d games", id, games.size());
+    }
+}
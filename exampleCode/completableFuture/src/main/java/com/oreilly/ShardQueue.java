@@ -0,0 +1,299 @@
+package com.oreilly;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * A work queue of {@link Shard}s kept in a directory, shared by any number of worker
+ * processes on the machines that can see it. A shard is a file that moves between the
+ * {@code pending}, {@code leased}, {@code done} and {@code failed} subdirectories by atomic
+ * renames, so when two workers race for a shard exactly one rename succeeds. Every
+ * submitted id also has a marker in {@code shards}, and the queue is finished when each
+ * of them is done or failed.
+ *
+ * <p>A leased shard is named {@code <shard id>@<worker id>}, so shard ids must not contain
+ * {@code @}; its modification time is the holder's last heartbeat. A lease whose
+ * heartbeat is older than the queue's lease timeout is considered abandoned: any worker
+ * or the coordinator moves it back to {@code pending}, and the old holder finds out at
+ * its next heartbeat. Lease ages are measured against the local clock, so on a shared
+ * file system the clocks of the machines must agree to well within the lease timeout.
+ *
+ * <p>A shard that is released or abandoned {@code maxAttempts} times is moved to
+ * {@code failed} rather than handed to yet another worker.
+ */
+public class ShardQueue {
+    private static final String CONFIG = "queue.properties";
+    private static final String LEASE_TIMEOUT = "leaseTimeout";
+    private static final String MAX_ATTEMPTS = "maxAttempts";
+    private static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+    private final Path shards;
+    private final Path pending;
+    private final Path leased;
+    private final Path done;
+    private final Path failed;
+    private final Path attempts;
+    private final Duration leaseTimeout;
+    private final int maxAttempts;
+
+    private ShardQueue(Path dir, Duration leaseTimeout, int maxAttempts) throws IOException {
+        this.shards = Files.createDirectories(dir.resolve("shards"));
+        this.pending = Files.createDirectories(dir.resolve("pending"));
+        this.leased = Files.createDirectories(dir.resolve("leased"));
+        this.done = Files.createDirectories(dir.resolve("done"));
+        this.failed = Files.createDirectories(dir.resolve("failed"));
+        this.attempts = Files.createDirectories(dir.resolve("attempts"));
+        this.leaseTimeout = leaseTimeout;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Creates a queue in {@code dir} that gives each shard up to 3 attempts, or opens the
+     * one already there with its own settings.
+     */
+    public static ShardQueue create(Path dir, Duration leaseTimeout) throws IOException {
+        return create(dir, leaseTimeout, DEFAULT_MAX_ATTEMPTS);
+    }
+
+    /**
+     * Creates a queue in {@code dir}, or opens the one already there with its own settings.
+     */
+    public static ShardQueue create(Path dir, Duration leaseTimeout, int maxAttempts) throws IOException {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be positive: " + maxAttempts);
+        }
+        Files.createDirectories(dir);
+        if (!Files.exists(dir.resolve(CONFIG))) {
+            Properties properties = new Properties();
+            properties.setProperty(LEASE_TIMEOUT, leaseTimeout.toString());
+            properties.setProperty(MAX_ATTEMPTS, Integer.toString(maxAttempts));
+            Path tmp = Files.createTempFile(dir, CONFIG, ".tmp");
+            try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                properties.store(writer, "backfill shard queue");
+            }
+            Files.move(tmp, dir.resolve(CONFIG), StandardCopyOption.ATOMIC_MOVE);
+        }
+        return open(dir);
+    }
+
+    /**
+     * Opens the queue created in {@code dir} by {@link #create(Path, Duration)}.
+     */
+    public static ShardQueue open(Path dir) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(dir.resolve(CONFIG), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return new ShardQueue(dir, Duration.parse(properties.getProperty(LEASE_TIMEOUT)),
+                Integer.parseInt(properties.getProperty(MAX_ATTEMPTS, Integer.toString(DEFAULT_MAX_ATTEMPTS))));
+    }
+
+    public Duration getLeaseTimeout() {
+        return leaseTimeout;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Adds a shard; it is written in full before it becomes visible to workers. Returns
+     * false, adding nothing, if a shard with the same id is already pending, leased or
+     * done, so submitting a backfill again after a restart only adds what is missing.
+     */
+    public boolean submit(Shard shard) throws IOException {
+        String id = shard.getId();
+        try {
+            Files.createFile(shards.resolve(id));
+        } catch (FileAlreadyExistsException e) {
+            // submitted before; add it again only if a crash lost it between marker and rename
+            if (contains(id)) {
+                return false;
+            }
+        }
+        Path tmp = Files.createTempFile(pending.getParent(), shard.getId(), ".tmp");
+        Files.write(tmp, shard.toLines(), StandardCharsets.UTF_8);
+        Files.move(tmp, pending.resolve(shard.getId()), StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+
+    private boolean contains(String id) throws IOException {
+        if (Files.exists(pending.resolve(id)) || Files.exists(done.resolve(id)) || Files.exists(failed.resolve(id))) {
+            return true;
+        }
+        try (DirectoryStream<Path> leases = Files.newDirectoryStream(leased, id + "@*")) {
+            return leases.iterator().hasNext();
+        }
+    }
+
+    /**
+     * Leases the first pending shard to {@code workerId}, after returning abandoned leases
+     * to the queue. Returns empty if no shard is pending.
+     */
+    public Optional<Lease> claim(String workerId) throws IOException {
+        reclaimExpired();
+        for (Path shard : list(pending)) {
+            String id = shard.getFileName().toString();
+            Path lease = leased.resolve(id + "@" + workerId);
+            try {
+                // a rename keeps the old time, so start the lease's clock first
+                Files.setLastModifiedTime(shard, now());
+                Files.move(shard, lease, StandardCopyOption.ATOMIC_MOVE);
+            } catch (NoSuchFileException e) {
+                continue; // another worker got there first
+            }
+            return Optional.of(new Lease(Shard.parse(id, Files.readAllLines(lease, StandardCharsets.UTF_8)), lease));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Moves leases whose last heartbeat is older than the lease timeout back to
+     * {@code pending}, or to {@code failed} on their last attempt, and returns how many
+     * it moved.
+     */
+    public int reclaimExpired() throws IOException {
+        long cutoff = System.currentTimeMillis() - leaseTimeout.toMillis();
+        int reclaimed = 0;
+        for (Path lease : list(leased)) {
+            try {
+                if (Files.getLastModifiedTime(lease).toMillis() >= cutoff) {
+                    continue;
+                }
+                String name = lease.getFileName().toString();
+                if (requeue(lease, name.substring(0, name.indexOf('@')))) {
+                    reclaimed++;
+                }
+            } catch (NoSuchFileException e) {
+                // completed, released or reclaimed by someone else meanwhile
+            }
+        }
+        return reclaimed;
+    }
+
+    public int pendingCount() throws IOException {
+        return list(pending).size();
+    }
+
+    public int leasedCount() throws IOException {
+        return list(leased).size();
+    }
+
+    public int doneCount() throws IOException {
+        return list(done).size();
+    }
+
+    public int failedCount() throws IOException {
+        return list(failed).size();
+    }
+
+    /**
+     * Returns true when every submitted shard is done or has failed.
+     */
+    public boolean isFinished() throws IOException {
+        // shards only ever enter done and failed, so counting them first cannot overshoot
+        int finished = list(done).size() + list(failed).size();
+        return finished == list(shards).size();
+    }
+
+    // moves a shard that was not done back to pending, or to failed once it used up its attempts
+    private boolean requeue(Path from, String id) throws IOException {
+        Path counter = attempts.resolve(id);
+        int attempt = (Files.exists(counter)
+                ? Integer.parseInt(new String(Files.readAllBytes(counter), StandardCharsets.UTF_8).trim())
+                : 0) + 1;
+        if (attempt >= maxAttempts) {
+            return move(from, failed.resolve(id));
+        }
+        if (!move(from, pending.resolve(id))) {
+            return false;
+        }
+        Path tmp = Files.createTempFile(attempts, id, ".tmp");
+        Files.write(tmp, Integer.toString(attempt).getBytes(StandardCharsets.UTF_8));
+        Files.move(tmp, counter, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return true;
+    }
+
+    private static boolean move(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private static List<Path> list(Path dir) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            stream.forEach(files::add);
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    private static FileTime now() {
+        return FileTime.fromMillis(System.currentTimeMillis());
+    }
+
+    /**
+     * A shard held by one worker. Call {@link #heartbeat()} well within the lease
+     * timeout, and {@link #complete()} or {@link #release()} when done with it.
+     */
+    public class Lease {
+        private final Shard shard;
+        private final Path path;
+
+        private Lease(Shard shard, Path path) {
+            this.shard = shard;
+            this.path = path;
+        }
+
+        public Shard getShard() {
+            return shard;
+        }
+
+        /**
+         * Renews the lease. Returns false if it has expired and been reclaimed, in which
+         * case another worker may already be working on the shard.
+         */
+        public boolean heartbeat() throws IOException {
+            try {
+                Files.setLastModifiedTime(path, now());
+                return true;
+            } catch (NoSuchFileException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Marks the shard done. Returns false if the lease had been lost.
+         */
+        public boolean complete() throws IOException {
+            return move(path, done.resolve(shard.getId()));
+        }
+
+        /**
+         * Gives the shard back to the queue for another attempt, or moves it to
+         * {@code failed} if this was its last. Returns false if the lease had been lost.
+         */
+        public boolean release() throws IOException {
+            return requeue(path, shard.getId());
+        }
+    }
+}
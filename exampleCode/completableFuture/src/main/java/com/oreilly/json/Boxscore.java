@@ -3,6 +3,7 @@ package com.oreilly.json;
 import com.google.gson.annotations.SerializedName;
 
 public class Boxscore {
+    private static final int UNKNOWN = -2;
 
     @SerializedName("home_sname")
     private String homeSname;
@@ -16,10 +17,17 @@ public class Boxscore {
     @SerializedName("away_fname")
     private String awayFname;
 
+    @SerializedName("game_id")
+    private String gameId;
+
     private String date;
 
     private Linescore linescore;
 
+    // ids of the full names in TeamRegistry.shared(); looked up lazily when not set by the decoder
+    private transient int homeTeamId = UNKNOWN;
+    private transient int awayTeamId = UNKNOWN;
+
     public String getHomeSname() {
         return homeSname;
     }
@@ -42,6 +50,7 @@ public class Boxscore {
 
     public void setHomeFname(String homeFname) {
         this.homeFname = homeFname;
+        this.homeTeamId = UNKNOWN;
     }
 
     public String getAwayFname() {
@@ -50,6 +59,47 @@ public class Boxscore {
 
     public void setAwayFname(String awayFname) {
         this.awayFname = awayFname;
+        this.awayTeamId = UNKNOWN;
+    }
+
+    /**
+     * Returns the {@link TeamRegistry#shared() registry} id of the home team, or -1 if
+     * its name is missing.
+     */
+    public int getHomeTeamId() {
+        int id = homeTeamId;
+        if (id == UNKNOWN) {
+            homeTeamId = id = TeamRegistry.shared().teamId(homeFname);
+        }
+        return id;
+    }
+
+    void setHomeTeamId(int homeTeamId) {
+        this.homeTeamId = homeTeamId;
+    }
+
+    /**
+     * Returns the {@link TeamRegistry#shared() registry} id of the away team, or -1 if
+     * its name is missing.
+     */
+    public int getAwayTeamId() {
+        int id = awayTeamId;
+        if (id == UNKNOWN) {
+            awayTeamId = id = TeamRegistry.shared().teamId(awayFname);
+        }
+        return id;
+    }
+
+    void setAwayTeamId(int awayTeamId) {
+        this.awayTeamId = awayTeamId;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(String gameId) {
+        this.gameId = gameId;
     }
 
     public String getDate() {
@@ -0,0 +1,31 @@
+package com.oreilly.json;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * The Gson configuration for boxscores: {@link Result} is read and written by
+ * {@link ResultTypeAdapter}. Every reader and writer of boxscore JSON should get its
+ * Gson from here.
+ */
+public final class BoxscoreGson {
+    private static final Gson GSON = builder().create();
+
+    private BoxscoreGson() {
+    }
+
+    /**
+     * Returns the shared instance; Gson is thread safe.
+     */
+    public static Gson get() {
+        return GSON;
+    }
+
+    /**
+     * Returns a builder with the boxscore adapters registered, for further settings
+     * such as pretty printing.
+     */
+    public static GsonBuilder builder() {
+        return new GsonBuilder().registerTypeAdapter(Result.class, new ResultTypeAdapter());
+    }
+}
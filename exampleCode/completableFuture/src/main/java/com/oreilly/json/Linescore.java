@@ -2,7 +2,12 @@ package com.oreilly.json;
 
 import com.google.gson.annotations.SerializedName;
 
+/**
+ * The final score of a game. The runs are kept as the text of the feed, for writing it
+ * back unchanged, and as ints parsed once when the text is set, for arithmetic.
+ */
 public class Linescore {
+    private static final int UNPARSED = Integer.MIN_VALUE;
 
     @SerializedName("home_team_runs")
     private String homeTeamRuns;
@@ -10,12 +15,48 @@ public class Linescore {
     @SerializedName("away_team_runs")
     private String awayTeamRuns;
 
+    // parsed from the Strings; reflective Gson sets only the Strings, so parse lazily then
+    private transient int homeRuns = UNPARSED;
+    private transient int awayRuns = UNPARSED;
+
+    /**
+     * Parses a runs value of the feed. Missing, blank and non-numeric values, such as the
+     * "x" of an inning that was not played, count as 0.
+     */
+    public static int parseRuns(String runs) {
+        if (runs == null) {
+            return 0;
+        }
+        int length = runs.length();
+        int start = 0;
+        while (start < length && runs.charAt(start) == ' ') {
+            start++;
+        }
+        int end = length;
+        while (end > start && runs.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (start == end || end - start > 9) {
+            return 0;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = runs.charAt(i);
+            if (c < '0' || c > '9') {
+                return 0;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
     public String getHomeTeamRuns() {
         return homeTeamRuns;
     }
 
     public void setHomeTeamRuns(String homeTeamRuns) {
         this.homeTeamRuns = homeTeamRuns;
+        this.homeRuns = parseRuns(homeTeamRuns);
     }
 
     public String getAwayTeamRuns() {
@@ -24,5 +65,26 @@ public class Linescore {
 
     public void setAwayTeamRuns(String awayTeamRuns) {
         this.awayTeamRuns = awayTeamRuns;
+        this.awayRuns = parseRuns(awayTeamRuns);
+    }
+
+    public int getHomeRuns() {
+        int runs = homeRuns;
+        if (runs == UNPARSED) {
+            homeRuns = runs = parseRuns(homeTeamRuns);
+        }
+        return runs;
+    }
+
+    public int getAwayRuns() {
+        int runs = awayRuns;
+        if (runs == UNPARSED) {
+            awayRuns = runs = parseRuns(awayTeamRuns);
+        }
+        return runs;
+    }
+
+    public int getTotalRuns() {
+        return getHomeRuns() + getAwayRuns();
     }
 }
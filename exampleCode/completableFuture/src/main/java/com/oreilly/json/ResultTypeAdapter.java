@@ -0,0 +1,183 @@
+package com.oreilly.json;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes a {@link Result} with Gson's streaming API instead of reflection.
+ * A boxscore.json holds the batting and pitching lines of every player, but only
+ * {@code subject}, {@code copyright} and a handful of {@code data.boxscore} fields are
+ * bound; everything else is skipped token by token without being materialised.
+ *
+ * <p>Team names are canonicalised and numbered by {@link TeamRegistry#shared()}.
+ *
+ * <p>Fields are written in the same order, and under the same names, as Gson's reflective
+ * adapter writes them, so files written before and after this adapter are interchangeable.
+ */
+public class ResultTypeAdapter extends TypeAdapter<Result> {
+    private final TeamRegistry teams = TeamRegistry.shared();
+
+    @Override
+    public Result read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Result result = new Result();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "subject":
+                    result.setSubject(nextString(in));
+                    break;
+                case "copyright":
+                    result.setCopyright(nextString(in));
+                    break;
+                case "data":
+                    result.setData(readData(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return result;
+    }
+
+    private Data readData(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Data data = new Data();
+        in.beginObject();
+        while (in.hasNext()) {
+            if (in.nextName().equals("boxscore")) {
+                data.setBoxscore(readBoxscore(in));
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return data;
+    }
+
+    private Boxscore readBoxscore(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Boxscore boxscore = new Boxscore();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "home_sname":
+                    boxscore.setHomeSname(teams.intern(nextString(in)));
+                    break;
+                case "away_sname":
+                    boxscore.setAwaySname(teams.intern(nextString(in)));
+                    break;
+                case "home_fname":
+                    boxscore.setHomeFname(teams.intern(nextString(in)));
+                    break;
+                case "away_fname":
+                    boxscore.setAwayFname(teams.intern(nextString(in)));
+                    break;
+                case "game_id":
+                    boxscore.setGameId(nextString(in));
+                    break;
+                case "date":
+                    boxscore.setDate(nextString(in));
+                    break;
+                case "linescore":
+                    boxscore.setLinescore(readLinescore(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        boxscore.setHomeTeamId(teams.teamId(boxscore.getHomeFname()));
+        boxscore.setAwayTeamId(teams.teamId(boxscore.getAwayFname()));
+        return boxscore;
+    }
+
+    private Linescore readLinescore(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Linescore linescore = new Linescore();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "home_team_runs":
+                    linescore.setHomeTeamRuns(nextString(in));
+                    break;
+                case "away_team_runs":
+                    linescore.setAwayTeamRuns(nextString(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return linescore;
+    }
+
+    // like Gson's own String adapter: numbers and booleans are read as their text
+    private static String nextString(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return Boolean.toString(in.nextBoolean());
+        }
+        return in.nextString();
+    }
+
+    @Override
+    public void write(JsonWriter out, Result result) throws IOException {
+        if (result == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("subject").value(result.getSubject());
+        out.name("copyright").value(result.getCopyright());
+        Data data = result.getData();
+        if (data != null) {
+            out.name("data").beginObject();
+            if (data.getBoxscore() != null) {
+                out.name("boxscore");
+                writeBoxscore(out, data.getBoxscore());
+            }
+            out.endObject();
+        }
+        out.endObject();
+    }
+
+    private void writeBoxscore(JsonWriter out, Boxscore boxscore) throws IOException {
+        out.beginObject();
+        out.name("home_sname").value(boxscore.getHomeSname());
+        out.name("away_sname").value(boxscore.getAwaySname());
+        out.name("home_fname").value(boxscore.getHomeFname());
+        out.name("away_fname").value(boxscore.getAwayFname());
+        out.name("game_id").value(boxscore.getGameId());
+        out.name("date").value(boxscore.getDate());
+        Linescore linescore = boxscore.getLinescore();
+        if (linescore != null) {
+            out.name("linescore").beginObject();
+            out.name("home_team_runs").value(linescore.getHomeTeamRuns());
+            out.name("away_team_runs").value(linescore.getAwayTeamRuns());
+            out.endObject();
+        }
+        out.endObject();
+    }
+}
@@ -0,0 +1,81 @@
+package com.oreilly.json;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Canonical team names and compact team ids. The same thirty-odd teams appear in every
+ * boxscore, so {@link ResultTypeAdapter} replaces each decoded name with the registry's
+ * instance and numbers each full team name, in the order first seen. Heap use then grows
+ * with the number of games, not with games times the length of the names.
+ *
+ * <p>Ids are only meaningful within one registry; boxscores are numbered by
+ * {@link #shared()}. A registry is thread safe and never forgets a name.
+ */
+public class TeamRegistry {
+    private static final TeamRegistry SHARED = new TeamRegistry();
+
+    private final ConcurrentMap<String, String> names = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] teams = new String[0]; // by id; replaced under the lock
+
+    public static TeamRegistry shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the registry's instance of {@code name}, registering it if it is new.
+     */
+    public String intern(String name) {
+        if (name == null) {
+            return null;
+        }
+        String canonical = names.putIfAbsent(name, name);
+        return canonical == null ? name : canonical;
+    }
+
+    /**
+     * Returns the id of the team with full name {@code name}, assigning the next id if
+     * the team is new, or -1 for a null name.
+     */
+    public int teamId(String name) {
+        if (name == null) {
+            return -1;
+        }
+        Integer id = ids.get(name);
+        return id != null ? id : register(name);
+    }
+
+    private synchronized int register(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        String canonical = intern(name);
+        String[] grown = Arrays.copyOf(teams, teams.length + 1);
+        grown[teams.length] = canonical;
+        teams = grown;
+        ids.put(canonical, grown.length - 1);
+        return grown.length - 1;
+    }
+
+    /**
+     * Returns the id of the team with full name {@code name}, or -1 if it is not registered.
+     */
+    public int find(String name) {
+        Integer id = name == null ? null : ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    public String teamName(int teamId) {
+        return teams[teamId];
+    }
+
+    /**
+     * Returns the number of team ids assigned so far; ids run from 0 to {@code size() - 1}.
+     */
+    public int size() {
+        return teams.length;
+    }
+}
@@ -0,0 +1,239 @@
+package com.oreilly;
+
+import com.oreilly.json.Result;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class BackfillRunnerTest {
+    private static final LocalDate MAY_28 = LocalDate.of(2017, Month.MAY, 28);
+
+    @Rule
+    public MockWebServer server = new MockWebServer();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private HttpClientConfig config;
+    private Path manifestFile;
+
+    @Before
+    public void setUp() {
+        server.setDispatcher(new FixtureDispatcher());
+        config = HttpClientConfig.builder().baseUrl(server.url("/").toString()).build();
+        manifestFile = folder.getRoot().toPath().resolve("backfill/manifest.txt");
+    }
+
+    @Test
+    public void resumesWhereTheLastRunStopped() throws Exception {
+        Path archive = folder.newFolder("archive").toPath();
+
+        // the first run loses its disk after 20 games
+        AtomicInteger saves = new AtomicInteger();
+        try (BoxscoreArchiveWriter writer = new BoxscoreArchiveWriter(archive, BoxscoreArchiveWriter.Granularity.DAY);
+             BackfillManifest manifest = new BackfillManifest(manifestFile)) {
+            ResultSink failing = result -> {
+                if (saves.incrementAndGet() > 20) {
+                    throw new IOException("disk full");
+                }
+                writer.save(result);
+            };
+            BackfillRunner.Progress progress = new BackfillRunner(config, failing, manifest, 4, 5, Duration.ofSeconds(10))
+                    .run(MAY_28, 3);
+            assertEquals(20, progress.getSaved());
+            assertEquals(25, progress.getFailed());
+        }
+
+        int requestsBefore = server.getRequestCount();
+        try (BoxscoreArchiveWriter writer = new BoxscoreArchiveWriter(archive, BoxscoreArchiveWriter.Granularity.DAY);
+             BackfillManifest manifest = new BackfillManifest(manifestFile)) {
+            assertEquals(21, manifest.size()); // 20 games and the first day
+            BackfillRunner.Progress progress = new BackfillRunner(config, writer, manifest).run(MAY_28, 3);
+
+            assertEquals(25, progress.getSaved());
+            assertEquals(5, progress.getSkipped());
+            assertEquals(1, progress.getDaysSkipped());
+            assertEquals(0, progress.getFailed());
+        }
+        // two day indexes and 25 boxscores
+        assertEquals(27, server.getRequestCount() - requestsBefore);
+
+        try (BoxscoreArchiveReader reader = new BoxscoreArchiveReader(archive)) {
+            assertEquals(45, reader.size());
+        }
+    }
+
+    @Test
+    public void finishedRangeIsNotFetchedAgain() throws Exception {
+        Path data = folder.newFolder("data").toPath();
+        try (BackfillManifest manifest = new BackfillManifest(manifestFile)) {
+            assertEquals(45, new BackfillRunner(config, new ResultWriter(data, false), manifest).run(MAY_28, 3).getSaved());
+        }
+        int requestsBefore = server.getRequestCount();
+        try (BackfillManifest manifest = new BackfillManifest(manifestFile)) {
+            BackfillRunner.Progress progress = new BackfillRunner(config, new ResultWriter(data, false), manifest)
+                    .run(MAY_28, 3);
+
+            assertEquals(0, progress.getSaved());
+            assertEquals(3, progress.getDaysSkipped());
+        }
+        assertEquals(requestsBefore, server.getRequestCount());
+    }
+
+    @Test
+    public void dayWithoutGamesIsFinishedButFailedIndexIsNot() throws Exception {
+        server.setDispatcher(new FixtureDispatcher() {
+            @Override
+            protected MockResponse respond(RecordedRequest request) {
+                if (request.getPath().endsWith("/day_31/")) {
+                    return new MockResponse().setBody("<html><body><a href=\"../\">Parent</a></body></html>");
+                }
+                return request.getPath().endsWith("/day_29/")
+                        ? new MockResponse().setResponseCode(503)
+                        : super.respond(request);
+            }
+        });
+        LocalDate may31 = MAY_28.plusDays(3);
+        try (BackfillManifest manifest = new BackfillManifest(manifestFile)) {
+            BackfillRunner.Progress progress = new BackfillRunner(config, result -> { }, manifest).run(MAY_28, 4);
+            assertEquals(30, progress.getSaved());
+            assertEquals(1, progress.getDaysFailed());
+            assertTrue(manifest.contains(BackfillRunner.dayKey(may31)));
+            assertFalse(manifest.contains(BackfillRunner.dayKey(MAY_28.plusDays(1))));
+        }
+
+        int requestsBefore = server.getRequestCount();
+        try (BackfillManifest manifest = new BackfillManifest(manifestFile)) {
+            BackfillRunner.Progress progress = new BackfillRunner(config, result -> { }, manifest).run(MAY_28, 4);
+            assertEquals(3, progress.getDaysSkipped());
+            assertEquals(1, progress.getDaysFailed());
+        }
+        // only the index that failed is fetched again
+        assertEquals(1, server.getRequestCount() - requestsBefore);
+    }
+
+    @Test
+    public void missingBoxscoresAreRetriedOnTheNextRun() throws Exception {
+        server.setDispatcher(new FixtureDispatcher() {
+            @Override
+            protected MockResponse respond(RecordedRequest request) {
+                return request.getPath().contains("anamlb_miamlb")
+                        ? new MockResponse().setResponseCode(404)
+                        : super.respond(request);
+            }
+        });
+        try (BackfillManifest manifest = new BackfillManifest(manifestFile)) {
+            BackfillRunner.Progress progress = new BackfillRunner(config, result -> { }, manifest).run(MAY_28, 1);
+            assertEquals(14, progress.getSaved());
+            assertEquals(1, progress.getFailed());
+            assertFalse(manifest.contains(BackfillRunner.dayKey(MAY_28)));
+        }
+    }
+
+    @Test
+    public void gamesSavedDuringAFlushWaitForTheNextCheckpoint() throws Exception {
+        AtomicInteger flushes = new AtomicInteger();
+        AtomicBoolean recordedEarly = new AtomicBoolean();
+        try (BackfillManifest manifest = new BackfillManifest(manifestFile)) {
+            class FlushingSink implements ResultSink, Flushable {
+                @Override
+                public void save(Result result) {
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    int flush = flushes.incrementAndGet();
+                    if (flush == 1) {
+                        // another thread saves a game while the sink is being flushed
+                        manifest.add("gid_during_flush");
+                    } else if (flush == 2) {
+                        recordedEarly.set(Files.readAllLines(manifestFile).contains("gid_during_flush"));
+                    }
+                }
+            }
+            new BackfillRunner(config, new FlushingSink(), manifest, 4, 1, Duration.ofSeconds(10)).run(MAY_28, 1);
+        }
+        assertTrue(flushes.get() > 1);
+        assertFalse(recordedEarly.get());
+        assertTrue(Files.readAllLines(manifestFile).contains("gid_during_flush"));
+    }
+
+    @Test
+    public void cancelledRunStopsFetchingAndRecording() throws Exception {
+        AtomicInteger saves = new AtomicInteger();
+        try (BackfillManifest manifest = new BackfillManifest(manifestFile)) {
+            BackfillRunner[] runner = new BackfillRunner[1];
+            runner[0] = new BackfillRunner(config, result -> {
+                if (saves.incrementAndGet() == 5) {
+                    runner[0].cancel();
+                }
+            }, manifest, 2, 1, Duration.ofSeconds(10));
+            BackfillRunner.Progress progress = runner[0].run(MAY_28, 3);
+
+            // a result that arrived with the fifth may still have been saved
+            assertTrue(progress.getSaved() >= 5 && progress.getSaved() <= 6);
+            assertEquals(progress.getSaved(), manifest.size());
+            assertFalse(manifest.contains(BackfillRunner.dayKey(MAY_28)));
+        }
+        // one day index and no more boxscores than were in flight
+        assertTrue(server.getRequestCount() <= 1 + 6 + 2);
+    }
+
+    @Test
+    public void abandonedManifestWritesNothingMore() throws IOException {
+        BackfillManifest manifest = new BackfillManifest(manifestFile);
+        manifest.add("gid_2017_05_28_anamlb_miamlb_1");
+        manifest.checkpoint();
+        manifest.add("gid_2017_05_28_phimlb_colmlb_1");
+        manifest.abandon();
+        manifest.checkpoint();
+        manifest.close();
+
+        assertEquals("gid_2017_05_28_anamlb_miamlb_1\n",
+                new String(Files.readAllBytes(manifestFile), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void twoWritersOfOneManifestKeepEachOthersKeys() throws IOException {
+        try (BackfillManifest stale = new BackfillManifest(manifestFile);
+             BackfillManifest current = new BackfillManifest(manifestFile)) {
+            current.add("gid_2017_05_28_anamlb_miamlb_1");
+            current.checkpoint();
+            stale.add("gid_2017_05_28_phimlb_colmlb_1");
+            stale.checkpoint();
+        }
+        assertEquals("gid_2017_05_28_anamlb_miamlb_1\ngid_2017_05_28_phimlb_colmlb_1\n",
+                new String(Files.readAllBytes(manifestFile), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void tornManifestLineIsDropped() throws IOException {
+        Files.createDirectories(manifestFile.getParent());
+        Files.write(manifestFile, "gid_2017_05_28_anamlb_miamlb_1\ngid_2017_05_28_ph".getBytes(StandardCharsets.UTF_8));
+
+        try (BackfillManifest manifest = new BackfillManifest(manifestFile)) {
+            assertEquals(1, manifest.size());
+            assertTrue(manifest.contains("gid_2017_05_28_anamlb_miamlb_1"));
+            manifest.add("gid_2017_05_28_phimlb_colmlb_1");
+        }
+        assertEquals("gid_2017_05_28_anamlb_miamlb_1\ngid_2017_05_28_phimlb_colmlb_1\n",
+                new String(Files.readAllBytes(manifestFile), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,155 @@
+package com.oreilly;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class BackfillWorkerTest {
+    private static final LocalDate MAY_28 = LocalDate.of(2017, Month.MAY, 28);
+
+    @Rule
+    public MockWebServer server = new MockWebServer();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path queueDir;
+    private Path outputDir;
+
+    @Before
+    public void setUp() throws Exception {
+        server.setDispatcher(new FixtureDispatcher());
+        queueDir = folder.getRoot().toPath().resolve("queue");
+        outputDir = folder.getRoot().toPath().resolve("output");
+    }
+
+    @Test
+    public void workerTakesOverAnAbandonedShard() throws Exception {
+        ShardQueue queue = ShardQueue.create(queueDir, Duration.ofSeconds(30));
+        new BackfillCoordinator(queue).submitDays(MAY_28, 3, 1);
+        ShardQueue.Lease abandoned = queue.claim("crashed").get();
+        Files.setLastModifiedTime(queueDir.resolve("leased/" + abandoned.getShard().getId() + "@crashed"),
+                FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+
+        HttpClientConfig config = HttpClientConfig.builder().baseUrl(server.url("/").toString()).build();
+        BackfillWorker worker = new BackfillWorker(queue, queueDir.resolve("manifests"), config,
+                new ResultWriter(outputDir, false), "worker-1");
+
+        assertEquals(3, worker.run());
+        assertTrue(queue.isFinished());
+        assertFalse(abandoned.complete());
+        assertEquals(45, countFiles(outputDir));
+    }
+
+    @Test
+    public void unfinishedShardIsRetriedAndThenSetAside() throws Exception {
+        FixtureDispatcher fixtures = new FixtureDispatcher() {
+            @Override
+            protected MockResponse respond(RecordedRequest request) {
+                return request.getPath().endsWith("/day_29/")
+                        ? new MockResponse().setResponseCode(503)
+                        : super.respond(request);
+            }
+        };
+        server.setDispatcher(fixtures);
+        ShardQueue queue = ShardQueue.create(queueDir, Duration.ofSeconds(30), 2);
+        new BackfillCoordinator(queue).submitDays(MAY_28, 3, 1);
+
+        HttpClientConfig config = HttpClientConfig.builder().baseUrl(server.url("/").toString()).build();
+        BackfillWorker worker = new BackfillWorker(queue, queueDir.resolve("manifests"), config,
+                new ResultWriter(outputDir, false), "worker-1");
+
+        assertEquals(2, worker.run());
+        assertTrue(queue.isFinished());
+        assertEquals(2, queue.doneCount());
+        assertEquals(1, queue.failedCount());
+        assertEquals(30, countFiles(outputDir));
+    }
+
+    @Test
+    public void shardWithADayWithoutGamesIsCompleted() throws Exception {
+        server.setDispatcher(new FixtureDispatcher() {
+            @Override
+            protected MockResponse respond(RecordedRequest request) {
+                return request.getPath().endsWith("/day_31/")
+                        ? new MockResponse().setBody("<html><body><a href=\"../\">Parent</a></body></html>")
+                        : super.respond(request);
+            }
+        });
+        ShardQueue queue = ShardQueue.create(queueDir, Duration.ofSeconds(30));
+        assertEquals(2, new BackfillCoordinator(queue).submitDays(MAY_28, 4, 2));
+
+        HttpClientConfig config = HttpClientConfig.builder().baseUrl(server.url("/").toString()).build();
+        BackfillWorker worker = new BackfillWorker(queue, queueDir.resolve("manifests"), config,
+                new ResultWriter(outputDir, false), "worker-1");
+
+        assertEquals(2, worker.run());
+        assertEquals(2, queue.doneCount());
+        assertEquals(0, queue.failedCount());
+        assertEquals(45, countFiles(outputDir));
+    }
+
+    @Test
+    public void workerProcessesShareTheQueue() throws Exception {
+        ShardQueue queue = ShardQueue.create(queueDir, Duration.ofSeconds(30));
+        assertEquals(6, new BackfillCoordinator(queue).submitGames(gameLinks(), 8));
+
+        List<Process> workers = new ArrayList<>();
+        for (String workerId : new String[]{"worker-1", "worker-2"}) {
+            workers.add(new ProcessBuilder(
+                    System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+                    "-cp", System.getProperty("java.class.path"),
+                    BackfillWorker.class.getName(),
+                    queueDir.toString(), outputDir.toString(), server.url("/").toString(), workerId)
+                    .redirectErrorStream(true)
+                    .redirectOutput(folder.getRoot().toPath().resolve(workerId + ".log").toFile())
+                    .start());
+        }
+        for (Process worker : workers) {
+            assertTrue(worker.waitFor(2, TimeUnit.MINUTES));
+            assertEquals(0, worker.exitValue());
+        }
+
+        assertTrue(queue.isFinished());
+        assertEquals(6, queue.doneCount());
+        assertEquals(45, countFiles(outputDir));
+        // one manifest per shard, recording each game once
+        try (Stream<Path> manifests = Files.list(queueDir.resolve("manifests"))) {
+            long games = 0;
+            for (Path manifest : (Iterable<Path>) manifests::iterator) {
+                games += Files.readAllLines(manifest).size();
+            }
+            assertEquals(45, games);
+        }
+    }
+
+    private List<String> gameLinks() {
+        GamePageLinksSupplier supplier = new GamePageLinksSupplier(
+                HttpClientConfig.builder().baseUrl(server.url("/").toString()).build(), MAY_28, 3);
+        return supplier.get();
+    }
+
+    private static long countFiles(Path dir) throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.oreilly;
+
+import com.google.gson.Gson;
+import com.oreilly.json.Result;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+public class BoxscoreArchiveReaderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path dir;
+
+    private Result game(String gameId, String awayTeamRuns) throws IOException {
+        try (Reader reader = new InputStreamReader(
+                getClass().getResourceAsStream("/sample_boxscore.json"), StandardCharsets.UTF_8)) {
+            Result result = new Gson().fromJson(reader, Result.class);
+            result.getData().getBoxscore().setGameId(gameId);
+            result.getData().getBoxscore().getLinescore().setAwayTeamRuns(awayTeamRuns);
+            return result;
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        dir = folder.getRoot().toPath();
+        try (BoxscoreArchiveWriter writer =
+                     new BoxscoreArchiveWriter(dir, BoxscoreArchiveWriter.Granularity.DAY)) {
+            writer.save(game("2017/05/05/arimlb-colmlb-1", "1"));
+            writer.save(game("2017/05/05/sdnmlb-lanmlb-1", "2"));
+            writer.save(game("2017/05/06/arimlb-colmlb-1", "3"));
+        }
+    }
+
+    @Test
+    public void find() throws IOException {
+        try (BoxscoreArchiveReader reader = new BoxscoreArchiveReader(dir)) {
+            assertEquals(3, reader.size());
+
+            Optional<Result> result = reader.find("gid_2017_05_05_sdnmlb_lanmlb_1/");
+            assertTrue(result.isPresent());
+            assertEquals("2", result.get().getData().getBoxscore().getLinescore().getAwayTeamRuns());
+
+            result = reader.find("gid_2017_05_06_arimlb_colmlb_1");
+            assertTrue(result.isPresent());
+            assertEquals("3", result.get().getData().getBoxscore().getLinescore().getAwayTeamRuns());
+
+            assertFalse(reader.find("gid_2017_05_07_arimlb_colmlb_1/").isPresent());
+        }
+    }
+
+    @Test
+    public void ignoresIndexEntriesPastEndOfSegment() throws IOException {
+        Files.write(dir.resolve("2017_05_06.idx"),
+                "gid_2017_05_06_sdnmlb_lanmlb_1\t999999\t10\n".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        try (BoxscoreArchiveReader reader = new BoxscoreArchiveReader(dir)) {
+            assertEquals(3, reader.size());
+            assertFalse(reader.find("gid_2017_05_06_sdnmlb_lanmlb_1").isPresent());
+        }
+    }
+}
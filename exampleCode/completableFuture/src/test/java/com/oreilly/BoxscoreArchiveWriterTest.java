@@ -0,0 +1,86 @@
+package com.oreilly;
+
+import com.google.gson.Gson;
+import com.oreilly.json.Result;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BoxscoreArchiveWriterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Result game(String gameId) throws IOException {
+        try (Reader reader = new InputStreamReader(
+                getClass().getResourceAsStream("/sample_boxscore.json"), StandardCharsets.UTF_8)) {
+            Result result = new Gson().fromJson(reader, Result.class);
+            result.getData().getBoxscore().setGameId(gameId);
+            return result;
+        }
+    }
+
+    @Test
+    public void gameKey() throws IOException {
+        assertEquals("gid_2017_05_05_arimlb_colmlb_1",
+                BoxscoreArchiveWriter.gameKey(game("2017/05/05/arimlb-colmlb-1")));
+        assertEquals("gid_2017_05_05_arimlb_colmlb_1",
+                BoxscoreArchiveWriter.gameKey("gid_2017_05_05_arimlb_colmlb_1/"));
+    }
+
+    @Test
+    public void saveAppendsToDaySegments() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        try (BoxscoreArchiveWriter writer =
+                     new BoxscoreArchiveWriter(dir, BoxscoreArchiveWriter.Granularity.DAY)) {
+            writer.save(game("2017/05/05/arimlb-colmlb-1"));
+            writer.save(game("2017/05/05/sdnmlb-lanmlb-1"));
+            writer.save(game("2017/05/06/arimlb-colmlb-1"));
+        }
+
+        assertTrue(Files.exists(dir.resolve("2017_05_06.ndjson")));
+        List<String> index = Files.readAllLines(dir.resolve("2017_05_05.idx"));
+        assertEquals(2, index.size());
+        String[] second = index.get(1).split("\t");
+        assertEquals("gid_2017_05_05_sdnmlb_lanmlb_1", second[0]);
+
+        try (RandomAccessFile file = new RandomAccessFile(dir.resolve("2017_05_05.ndjson").toFile(), "r")) {
+            byte[] record = new byte[Integer.parseInt(second[2])];
+            file.seek(Long.parseLong(second[1]));
+            file.readFully(record);
+            Result result = new Gson().fromJson(new String(record, StandardCharsets.UTF_8), Result.class);
+            assertEquals("2017/05/05/sdnmlb-lanmlb-1", result.getData().getBoxscore().getGameId());
+        }
+    }
+
+    @Test
+    public void saveAppendsToSeasonSegmentAcrossRuns() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        try (BoxscoreArchiveWriter writer =
+                     new BoxscoreArchiveWriter(dir, BoxscoreArchiveWriter.Granularity.SEASON)) {
+            writer.save(game("2017/05/05/arimlb-colmlb-1"));
+        }
+        try (BoxscoreArchiveWriter writer =
+                     new BoxscoreArchiveWriter(dir, BoxscoreArchiveWriter.Granularity.SEASON)) {
+            writer.save(game("2017/09/30/arimlb-colmlb-1"));
+        }
+
+        List<String> index = Files.readAllLines(dir.resolve("2017.idx"));
+        assertEquals(2, index.size());
+        String[] first = index.get(0).split("\t");
+        String[] second = index.get(1).split("\t");
+        assertEquals(Long.parseLong(first[2]), Long.parseLong(second[1]));
+        assertEquals(Files.size(dir.resolve("2017.ndjson")),
+                Long.parseLong(second[1]) + Long.parseLong(second[2]));
+    }
+}
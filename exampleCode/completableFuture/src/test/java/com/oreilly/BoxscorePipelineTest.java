@@ -0,0 +1,108 @@
+package com.oreilly;
+
+import com.oreilly.json.Result;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+public class BoxscorePipelineTest {
+    private LocalDate date = LocalDate.of(2017, Month.MAY, 5);
+    private ExecutorService executor = Executors.newCachedThreadPool();
+
+    @Rule
+    public MockWebServer server = new MockWebServer();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void run() {
+        server.setDispatcher(new FakeMlbDispatcher(4, 5));
+        String base = server.url("/").toString();
+        BoxscorePipeline pipeline = new BoxscorePipeline(new GamePageLinksSupplier(base, date, 5),
+                new BoxscoreRetriever(base), executor, 2, 4, 2);
+
+        Queue<Result> results = new ConcurrentLinkedQueue<>();
+        pipeline.run(results::add).join();
+
+        assertEquals(20, results.size());
+        assertEquals(25, server.getRequestCount());
+    }
+
+    @Test
+    public void boxscoresOverlapLinkDiscovery() throws InterruptedException {
+        server.setDispatcher(new FakeMlbDispatcher(2, 30));
+        String base = server.url("/").toString();
+        BoxscorePipeline pipeline = new BoxscorePipeline(new GamePageLinksSupplier(base, date, 5),
+                new BoxscoreRetriever(base), executor, 1, 2, 4);
+
+        pipeline.run(result -> {
+        }).join();
+
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < server.getRequestCount(); i++) {
+            paths.add(server.takeRequest().getPath());
+        }
+        int firstBoxscore = paths.indexOf(paths.stream()
+                .filter(path -> path.endsWith("boxscore.json")).findFirst().orElse(null));
+        int lastDayIndex = paths.indexOf(paths.stream()
+                .filter(path -> path.contains("day_09")).findFirst().orElse(null));
+        assertTrue(firstBoxscore < lastDayIndex);
+    }
+
+    @Test
+    public void sinkFailureStopsPipeline() {
+        server.setDispatcher(new FakeMlbDispatcher(4, 5));
+        String base = server.url("/").toString();
+        BoxscorePipeline pipeline = new BoxscorePipeline(new GamePageLinksSupplier(base, date, 30),
+                new BoxscoreRetriever(base), executor, 2, 2, 2);
+
+        try {
+            pipeline.run(result -> {
+                throw new IllegalStateException("disk full");
+            }).join();
+            fail("pipeline should fail");
+        } catch (RuntimeException e) {
+            assertEquals("disk full", e.getCause().getMessage());
+        }
+        assertTrue(server.getRequestCount() < 150);
+    }
+
+    @Test
+    public void loadWithFailuresIsDeterministic() throws IOException {
+        LocalDate may28 = LocalDate.of(2017, Month.MAY, 28);
+        int[] counts = new int[2];
+        for (int run = 0; run < 2; run++) {
+            try (MockWebServer local = new MockWebServer()) {
+                FixtureDispatcher dispatcher = new FixtureDispatcher(5, 0.2, 4, 42L);
+                local.setDispatcher(dispatcher);
+                String base = local.url("/").toString();
+                BoxscorePipeline pipeline = new BoxscorePipeline(new GamePageLinksSupplier(base, may28, 3),
+                        new BoxscoreRetriever(base), executor, 2, 8, 4);
+                Queue<Result> results = new ConcurrentLinkedQueue<>();
+                pipeline.run(results::add).join();
+
+                counts[run] = results.size();
+                assertTrue(dispatcher.getErrorCount() > 0);
+                assertEquals(4, dispatcher.getMaxInFlight());
+            }
+        }
+        assertTrue(counts[0] < 45);
+        assertEquals(counts[0], counts[1]);
+    }
+}
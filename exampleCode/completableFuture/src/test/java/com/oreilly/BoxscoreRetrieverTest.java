@@ -1,17 +1,43 @@
 package com.oreilly;
 
 import com.oreilly.json.Result;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.Month;
 import java.util.List;
 import java.util.Optional;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.Assert.*;
 
 public class BoxscoreRetrieverTest {
-    private BoxscoreRetriever retriever = new BoxscoreRetriever();
+    private BoxscoreRetriever retriever;
+    private String base;
+
+    @Rule
+    public MockWebServer server = new MockWebServer();
+
+    @Before
+    public void setUp() {
+        server.setDispatcher(new FixtureDispatcher());
+        base = server.url("/").toString();
+        retriever = new BoxscoreRetriever(base);
+    }
 
     @Test
     public void gamePattern2Result() {
@@ -27,8 +53,164 @@ public class BoxscoreRetrieverTest {
     @Test
     public void apply() {
         LocalDate startDate = LocalDate.of(2017, Month.MAY, 28);
-        List<Result> results = retriever.apply(new GamePageLinksSupplier(startDate, 3).get());
+        List<Result> results = retriever.apply(new GamePageLinksSupplier(base, startDate, 3).get());
+        assertEquals(45, results.size());
+    }
+
+    @Test
+    public void applyAsyncLimitsRequestsInFlight() throws IOException {
+        String boxscore = readResource("/sample_boxscore.json");
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                    return request.getPath().contains("_missing_")
+                            ? new MockResponse().setResponseCode(404)
+                            : new MockResponse().setBody(boxscore);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+        });
+
+        List<String> patterns = IntStream.range(0, 40)
+                .mapToObj(i -> String.format("gid_2017_05_05_ari%02dmlb_colmlb_1/", i))
+                .collect(Collectors.toList());
+        patterns.add(7, "gid_2017_05_05_missing_colmlb_1/");
+
+        List<Result> results = retriever.applyAsync(patterns, 8).join();
+
+        assertEquals(40, results.size());
+        assertEquals("May 5, 2017", results.get(0).getData().getBoxscore().getDate());
+        assertEquals(41, server.getRequestCount());
+        assertTrue(maxInFlight.get() <= 8);
+        assertTrue(maxInFlight.get() > 1);
+    }
+
+    @Test
+    public void gamePattern2ResultAsyncConnectionFailure() throws IOException {
+        server.shutdown();
+        Optional<Result> result = retriever.gamePattern2ResultAsync("gid_2017_05_05_arimlb_colmlb_1/").join();
+        assertFalse(result.isPresent());
+    }
+
+    @Test
+    public void retryPolicyRecoversFromServerErrors() {
+        List<String> links = new GamePageLinksSupplier(base, LocalDate.of(2017, Month.MAY, 28), 3).get();
+        FixtureDispatcher flaky = new FixtureDispatcher(0, 0.3, 0, 7L);
+        server.setDispatcher(flaky);
+        BoxscoreRetriever retrying = new BoxscoreRetriever(base, new OkHttpClient(), RetryPolicy.builder()
+                .maxAttempts(6)
+                .initialBackoff(Duration.ofMillis(2))
+                .build());
+
+        List<Result> results = retrying.applyAsync(links, 8).join();
+
         assertEquals(45, results.size());
+        assertTrue(flaky.getErrorCount() > 0);
+    }
+
+    @Test
+    public void retryPolicyDoesNotRetryMissingBoxscore() {
+        BoxscoreRetriever retrying = new BoxscoreRetriever(base, new OkHttpClient(),
+                RetryPolicy.builder().maxAttempts(3).build());
+        assertFalse(retrying.gamePattern2Result("gid_2017_01_01_anamlb_miamlb_1/").isPresent());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void attemptTimeoutCancelsSlowAttempt() {
+        server.setDispatcher(slowFirstRequest());
+        BoxscoreRetriever retrying = new BoxscoreRetriever(base, new OkHttpClient(), RetryPolicy.builder()
+                .maxAttempts(2)
+                .initialBackoff(Duration.ofMillis(2))
+                .attemptTimeout(Duration.ofMillis(100))
+                .build());
+
+        long start = System.nanoTime();
+        Optional<Result> result = retrying.gamePattern2Result("gid_2017_05_05_arimlb_colmlb_1/");
+
+        assertTrue(result.isPresent());
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(800));
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void hedgedRequestWinsOverSlowAttempt() {
+        server.setDispatcher(slowFirstRequest());
+        BoxscoreRetriever hedging = new BoxscoreRetriever(base, new OkHttpClient(), RetryPolicy.builder()
+                .maxAttempts(1)
+                .hedgeAfter(Duration.ofMillis(50))
+                .build());
+
+        long start = System.nanoTime();
+        Optional<Result> result = hedging.gamePattern2ResultAsync("gid_2017_05_05_arimlb_colmlb_1/").join();
+
+        assertTrue(result.isPresent());
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(800));
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void percentileHedgingWaitsForLatencySamples() {
+        server.setDispatcher(slowRequest(20));
+        BoxscoreRetriever hedging = new BoxscoreRetriever(base, new OkHttpClient(), RetryPolicy.builder()
+                .maxAttempts(1)
+                .hedgeAtPercentile(0.95, Duration.ofMillis(50))
+                .build());
+        String game = "gid_2017_05_05_arimlb_colmlb_1/";
+
+        // twenty timed requests warm the tracker up
+        for (int i = 0; i < 20; i++) {
+            assertTrue(hedging.gamePattern2ResultAsync(game).join().isPresent());
+        }
+        assertEquals(20, server.getRequestCount());
+
+        long start = System.nanoTime();
+        assertTrue(hedging.gamePattern2ResultAsync(game).join().isPresent());
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(800));
+        assertEquals(22, server.getRequestCount());
+    }
+
+    @Test
+    public void percentileHedgingIsOffWhileCold() {
+        server.setDispatcher(slowFirstRequest());
+        BoxscoreRetriever hedging = new BoxscoreRetriever(base, new OkHttpClient(), RetryPolicy.builder()
+                .maxAttempts(1)
+                .hedgeAtPercentile(0.95, Duration.ofMillis(50))
+                .build());
+
+        assertTrue(hedging.gamePattern2ResultAsync("gid_2017_05_05_arimlb_colmlb_1/").join().isPresent());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    private Dispatcher slowFirstRequest() {
+        return slowRequest(0);
     }
 
-}
\ No newline at end of file
+    // request number n stalls for a second, the others are served from the fixtures at once
+    private Dispatcher slowRequest(int n) {
+        FixtureDispatcher fixtures = new FixtureDispatcher();
+        AtomicInteger requests = new AtomicInteger();
+        return new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                if (requests.getAndIncrement() == n) {
+                    Thread.sleep(1000);
+                }
+                return fixtures.dispatch(request);
+            }
+        };
+    }
+
+    private String readResource(String name) {
+        InputStream in = getClass().getResourceAsStream(name);
+        try (Scanner scanner = new Scanner(in, "UTF-8").useDelimiter("\\A")) {
+            return scanner.next();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.oreilly;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.InputStream;
+import java.util.Scanner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stands in for gd2.mlb.com over any date range: every day index lists {@code gamesPerDay}
+ * games and every boxscore is the bundled sample. Use {@link FixtureDispatcher} when the
+ * games themselves matter.
+ */
+public class FakeMlbDispatcher extends StandInDispatcher {
+    private static final Pattern DAY_INDEX =
+            Pattern.compile("/year_(\\d{4})/month_(\\d{2})/day_(\\d{2})/?");
+
+    private final int gamesPerDay;
+    private final String boxscore = readResource("/sample_boxscore.json");
+
+    public FakeMlbDispatcher(int gamesPerDay, long latencyMillis) {
+        this(gamesPerDay, latencyMillis, 0.0, 0, 0L);
+    }
+
+    public FakeMlbDispatcher(int gamesPerDay, long latencyMillis, double errorRate, int maxConcurrency, long seed) {
+        super(latencyMillis, errorRate, maxConcurrency, seed);
+        this.gamesPerDay = gamesPerDay;
+    }
+
+    @Override
+    protected MockResponse respond(RecordedRequest request) {
+        String path = request.getPath();
+        if (path.endsWith("/boxscore.json")) {
+            return new MockResponse().setBody(boxscore);
+        }
+        Matcher matcher = DAY_INDEX.matcher(path);
+        if (matcher.matches()) {
+            return new MockResponse().setBody(dayIndex(matcher.group(1), matcher.group(2), matcher.group(3)));
+        }
+        return new MockResponse().setResponseCode(404);
+    }
+
+    private String dayIndex(String year, String month, String day) {
+        StringBuilder html = new StringBuilder("<html><body><ul>\n");
+        for (int i = 0; i < gamesPerDay; i++) {
+            html.append(String.format("<li><a href=\"gid_%s_%s_%s_a%02dmlb_h%02dmlb_1/\">game %d</a></li>%n",
+                    year, month, day, i, i, i));
+        }
+        return html.append("</ul></body></html>").toString();
+    }
+
+    private static String readResource(String name) {
+        InputStream in = FakeMlbDispatcher.class.getResourceAsStream(name);
+        try (Scanner scanner = new Scanner(in, "UTF-8").useDelimiter("\\A")) {
+            return scanner.next();
+        }
+    }
+}
@@ -1,16 +1,32 @@
 package com.oreilly;
 
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
 
 import java.time.LocalDate;
 import java.time.Month;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.Assert.*;
 
 public class GamePageLinksSupplierTest {
     private LocalDate date = LocalDate.of(2017, Month.MAY, 5);
-    private GamePageLinksSupplier supplier = new GamePageLinksSupplier(date, 3);
+    private GamePageLinksSupplier supplier;
+
+    @Rule
+    public MockWebServer server = new MockWebServer();
+
+    @Before
+    public void setUp() {
+        server.setDispatcher(new FixtureDispatcher());
+        supplier = new GamePageLinksSupplier(server.url("/").toString(), date, 3);
+    }
 
     @Test
     public void getGamePageLinks() {
@@ -29,4 +45,37 @@ public class GamePageLinksSupplierTest {
                         s.startsWith("gid_2017_05_06_") ||
                         s.startsWith("gid_2017_05_07_")));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getAsyncKeepsDateOrder() {
+        FakeMlbDispatcher dispatcher = new FakeMlbDispatcher(4, 50);
+        server.setDispatcher(dispatcher);
+        GamePageLinksSupplier local = new GamePageLinksSupplier(server.url("/").toString(), date, 8);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            List<String> links = local.getAsync(executor, 3).join();
+            assertEquals(local.get(), links);
+            assertEquals(32, links.size());
+            assertTrue(links.get(0).startsWith("gid_2017_05_05_"));
+            assertTrue(links.get(31).startsWith("gid_2017_05_12_"));
+            assertEquals(3, dispatcher.getMaxInFlight());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void streamLinks() {
+        server.setDispatcher(new FakeMlbDispatcher(4, 10));
+        GamePageLinksSupplier local = new GamePageLinksSupplier(server.url("/").toString(), date, 5);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            Queue<String> links = new ConcurrentLinkedQueue<>();
+            local.streamLinks(executor, 2, links::add).join();
+            assertEquals(20, links.size());
+            assertTrue(links.containsAll(local.get()));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
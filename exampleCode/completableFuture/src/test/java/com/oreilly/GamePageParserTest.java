@@ -1,17 +1,38 @@
 package com.oreilly;
 
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
 import java.time.LocalDate;
 import java.time.Month;
 
 import static org.junit.Assert.*;
 
 public class GamePageParserTest {
-    private GamePageParser parser = new GamePageParser();
+    private GamePageParser parser;
+    private File dataDir;
+
+    @Rule
+    public MockWebServer server = new MockWebServer();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setUp() {
+        server.setDispatcher(new FixtureDispatcher());
+        dataDir = new File(folder.getRoot(), "data");
+        parser = new GamePageParser(server.url("/").toString(),
+                new ResultWriter(dataDir.toPath(), true));
+    }
 
     @Test
     public void getGames() {
         parser.printGames(LocalDate.of(2017, Month.MAY, 5), 3);
+        assertEquals(45, dataDir.list().length);
     }
-}
\ No newline at end of file
+}
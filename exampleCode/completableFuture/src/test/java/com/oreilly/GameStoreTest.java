@@ -0,0 +1,95 @@
+package com.oreilly;
+
+import com.oreilly.json.Result;
+import com.oreilly.json.TeamRegistry;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class GameStoreTest {
+    private static final String[] TEAMS = {"Colorado Rockies", "Arizona Diamondbacks", "Miami Marlins", "Texas Rangers"};
+    private static final LocalDate OPENING_DAY = LocalDate.of(2017, Month.APRIL, 2);
+
+    private static Result game(LocalDate date, String away, String home, int awayRuns, int homeRuns) {
+        Result result = GameSummaryTest.game(away, home, awayRuns, homeRuns);
+        result.getData().getBoxscore().setDate(GameStore.DATE_FORMAT.format(date));
+        return result;
+    }
+
+    private static List<Result> season() {
+        Random random = new Random(17);
+        List<Result> results = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int home = random.nextInt(TEAMS.length);
+            int away = (home + 1 + random.nextInt(TEAMS.length - 1)) % TEAMS.length;
+            results.add(game(OPENING_DAY.plusDays(random.nextInt(180)), TEAMS[away], TEAMS[home],
+                    random.nextInt(12), random.nextInt(12)));
+        }
+        return results;
+    }
+
+    @Test
+    public void columns() {
+        GameStore store = GameStore.of(Stream.of(
+                game(OPENING_DAY.plusDays(1), TEAMS[1], TEAMS[0], 3, 5),
+                game(OPENING_DAY, TEAMS[2], TEAMS[1], 9, 1)));
+
+        assertEquals(2, store.size());
+        // sorted by date
+        assertEquals(OPENING_DAY, store.date(0));
+        assertEquals(TEAMS[2], store.teamName(store.awayTeam(0)));
+        assertEquals(10, store.totalRuns(0));
+        assertEquals(5, store.homeRuns(1));
+        assertEquals(-1, store.teamId("Montreal Expos"));
+        assertEquals(TeamRegistry.shared().find(TEAMS[1]), store.homeTeam(0));
+        assertEquals("Apr 2, 2017: Miami Marlins 9, Arizona Diamondbacks 1", store.toString(0));
+    }
+
+    @Test
+    public void agreesWithGameSummary() {
+        List<Result> results = season();
+        GameStore store = GameStore.of(results.stream());
+        GameSummary summary = results.stream().collect(GameSummary.collector());
+
+        assertEquals(summary.getGames(), store.size());
+        assertEquals(summary.getMaxScore(), store.maxTotalRuns());
+        assertEquals(summary.getMaxScore().getAsInt(), store.totalRuns(store.maxGameRow()));
+        for (String team : TEAMS) {
+            int id = store.teamId(team);
+            GameSummary.TeamRuns runs = summary.getTeams().get(team);
+            assertEquals(runs.getRunsFor(), store.runsFor(id));
+            assertEquals(runs.getRunsAgainst(), store.runsAgainst(id));
+            assertEquals(runs.getGames(), store.count(row -> store.homeTeam(row) == id || store.awayTeam(row) == id));
+        }
+    }
+
+    @Test
+    public void dateRanges() {
+        List<Result> results = season();
+        GameStore store = GameStore.of(results.stream());
+        LocalDate may = LocalDate.of(2017, Month.MAY, 1);
+        LocalDate june = LocalDate.of(2017, Month.JUNE, 1);
+
+        int from = store.firstRowOn(may);
+        int to = store.firstRowOn(june);
+        long inMay = results.stream()
+                .map(r -> LocalDate.parse(r.getData().getBoxscore().getDate(), GameStore.DATE_FORMAT))
+                .filter(d -> !d.isBefore(may) && d.isBefore(june))
+                .count();
+
+        assertEquals(inMay, to - from);
+        assertEquals(inMay, store.count(row -> store.date(row).getMonth() == Month.MAY));
+        assertEquals(store.maxGameRow(from, to), store.argMax(store::totalRuns,
+                row -> row >= from && row < to));
+        assertEquals(0, store.firstRowOn(OPENING_DAY.minusDays(1)));
+        assertEquals(store.size(), store.firstRowOn(OPENING_DAY.plusDays(365)));
+        assertEquals(-1, GameStore.builder().build().maxGameRow());
+    }
+}
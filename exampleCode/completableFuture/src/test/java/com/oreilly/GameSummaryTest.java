@@ -0,0 +1,88 @@
+package com.oreilly;
+
+import com.oreilly.json.Boxscore;
+import com.oreilly.json.Data;
+import com.oreilly.json.Linescore;
+import com.oreilly.json.Result;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class GameSummaryTest {
+    private static final String[] TEAMS = {"Colorado Rockies", "Arizona Diamondbacks", "Miami Marlins", "Texas Rangers"};
+
+    static Result game(String away, String home, int awayRuns, int homeRuns) {
+        Linescore linescore = new Linescore();
+        linescore.setAwayTeamRuns(Integer.toString(awayRuns));
+        linescore.setHomeTeamRuns(Integer.toString(homeRuns));
+        Boxscore boxscore = new Boxscore();
+        boxscore.setAwayFname(away);
+        boxscore.setHomeFname(home);
+        boxscore.setDate("May 5, 2017");
+        boxscore.setLinescore(linescore);
+        Data data = new Data();
+        data.setBoxscore(boxscore);
+        Result result = new Result();
+        result.setData(data);
+        return result;
+    }
+
+    @Test
+    public void summarize() {
+        List<Result> results = Arrays.asList(
+                game(TEAMS[1], TEAMS[0], 3, 5),
+                game(TEAMS[2], TEAMS[3], 9, 1),
+                game(TEAMS[0], TEAMS[2], 6, 4),
+                game(TEAMS[3], TEAMS[1], 0, 2));
+
+        GameSummary summary = results.stream().collect(GameSummary.collector());
+
+        assertEquals(4, summary.getGames());
+        assertEquals(10, summary.getMaxScore().getAsInt());
+        assertEquals(2, summary.getMinScore().getAsInt());
+        assertEquals(7.5, summary.getMeanScore().getAsDouble(), 1e-9);
+        assertSame(results.get(1), summary.getMaxGame().get());
+        GameSummary.TeamRuns rockies = summary.getTeams().get(TEAMS[0]);
+        assertEquals(2, rockies.getGames());
+        assertEquals(11, rockies.getRunsFor());
+        assertEquals(7, rockies.getRunsAgainst());
+    }
+
+    @Test
+    public void tiesGoToTheFirstGame() {
+        List<Result> results = Arrays.asList(game(TEAMS[0], TEAMS[1], 4, 4), game(TEAMS[2], TEAMS[3], 5, 3));
+        assertSame(results.get(0), results.stream().collect(GameSummary.collector()).getMaxGame().get());
+    }
+
+    @Test
+    public void parallelMatchesSequential() {
+        List<Result> results = IntStream.range(0, 10_000)
+                .mapToObj(i -> game(TEAMS[i % 4], TEAMS[(i + 1) % 4], i % 13, (i * 7) % 11))
+                .collect(Collectors.toList());
+
+        GameSummary sequential = results.stream().collect(GameSummary.collector());
+        GameSummary parallel = results.parallelStream().collect(GameSummary.collector());
+
+        assertEquals(sequential.toString(), parallel.toString());
+        assertSame(sequential.getMaxGame().get(), parallel.getMaxGame().get());
+        for (String team : TEAMS) {
+            assertEquals(sequential.getTeams().get(team).toString(), parallel.getTeams().get(team).toString());
+        }
+        assertEquals(new GamePageParser().getMaxGame(results), sequential.getMaxGame());
+    }
+
+    @Test
+    public void empty() {
+        GameSummary summary = new GameSummary();
+        assertEquals(0, summary.getGames());
+        assertFalse(summary.getMaxScore().isPresent());
+        assertFalse(summary.getMeanScore().isPresent());
+        assertFalse(summary.getMaxGame().isPresent());
+        assertTrue(summary.getTeams().isEmpty());
+    }
+}
@@ -0,0 +1,69 @@
+package com.oreilly;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.ZoneOffset;
+
+import static org.junit.Assert.*;
+
+public class HistoricalDataCacheTest {
+    private static final LocalDate TODAY = LocalDate.of(2017, Month.MAY, 10);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Rule
+    public MockWebServer server = new MockWebServer();
+
+    private HistoricalDataCache cache;
+    private OkHttpClient client;
+    private String base;
+
+    @Before
+    public void setUp() throws IOException {
+        server.setDispatcher(new FakeMlbDispatcher(3, 0));
+        Clock clock = Clock.fixed(TODAY.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        cache = new HistoricalDataCache(folder.newFolder("http").toPath(), 10L * 1024 * 1024, clock, 2);
+        client = cache.newClient();
+        base = server.url("/").toString();
+    }
+
+    @Test
+    public void isHistorical() {
+        assertTrue(cache.isHistorical("/year_2017/month_05/day_07/gid_2017_05_07_a/boxscore.json"));
+        assertFalse(cache.isHistorical("/year_2017/month_05/day_08/"));
+        assertFalse(cache.isHistorical("/year_2017/"));
+    }
+
+    @Test
+    public void pastDatesAreServedFromDisk() {
+        LocalDate date = LocalDate.of(2017, Month.MAY, 5);
+        GamePageLinksSupplier supplier = new GamePageLinksSupplier(base, date, 2, client);
+        BoxscoreRetriever retriever = new BoxscoreRetriever(base, client);
+
+        assertEquals(6, retriever.apply(supplier.get()).size());
+        assertEquals(8, server.getRequestCount());
+
+        assertEquals(6, retriever.apply(supplier.get()).size());
+        assertEquals(8, server.getRequestCount());
+        assertEquals(8, cache.getCache().hitCount());
+    }
+
+    @Test
+    public void recentDatesGoToTheNetwork() {
+        GamePageLinksSupplier supplier = new GamePageLinksSupplier(base, TODAY.minusDays(1), 1, client);
+
+        assertEquals(3, supplier.get().size());
+        assertEquals(3, supplier.get().size());
+        assertEquals(2, server.getRequestCount());
+    }
+}
@@ -0,0 +1,132 @@
+package com.oreilly;
+
+import com.oreilly.json.Result;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class HostThrottleTest {
+    private static final String GAME = "gid_2017_05_05_arimlb_colmlb_1/";
+
+    @Rule
+    public MockWebServer server = new MockWebServer();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private HttpClientConfig config(HostThrottle throttle) {
+        return HttpClientConfig.builder()
+                .baseUrl(server.url("/").toString())
+                .maxRequestsPerHost(32)
+                .maxIdleConnections(32)
+                .throttle(throttle)
+                .build();
+    }
+
+    @Test
+    public void limitsConcurrencyAcrossSupplierAndRetriever() {
+        FixtureDispatcher dispatcher = new FixtureDispatcher(20, 0, 0, 0L);
+        server.setDispatcher(dispatcher);
+        HttpClientConfig config = config(HostThrottle.builder()
+                .host(server.getHostName(), HostThrottle.Limits.of(1000, 100, 3))
+                .build());
+
+        List<String> links = new GamePageLinksSupplier(config, LocalDate.of(2017, Month.MAY, 28), 3)
+                .getAsync(PipelineExecutors.newVirtualThreadPerTaskExecutor(), 3).join();
+        List<Result> results = new BoxscoreRetriever(config).applyAsync(links, 16).join();
+
+        assertEquals(45, results.size());
+        assertEquals(3, dispatcher.getMaxInFlight());
+        // waiting requests hold no connection, so no more than the limit were opened
+        assertTrue(config.client().connectionPool().connectionCount() <= 3);
+    }
+
+    @Test
+    public void cachedResponsesAreNotThrottled() throws Exception {
+        server.setDispatcher(new FixtureDispatcher());
+        HttpClientConfig config = HttpClientConfig.builder()
+                .baseUrl(server.url("/").toString())
+                .cache(new HistoricalDataCache(folder.getRoot().toPath(), 10_000_000))
+                .throttle(HostThrottle.builder().defaults(HostThrottle.Limits.of(1, 1, 1)).build())
+                .build();
+        BoxscoreRetriever retriever = new BoxscoreRetriever(config);
+        assertTrue(retriever.gamePattern2Result(GAME).isPresent());
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            assertTrue(retriever.gamePattern2Result(GAME).isPresent());
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void limitsRate() {
+        server.setDispatcher(new FixtureDispatcher());
+        BoxscoreRetriever retriever = new BoxscoreRetriever(config(HostThrottle.builder()
+                .defaults(HostThrottle.Limits.of(20, 1, 10))
+                .build()));
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 11; i++) {
+            assertTrue(retriever.gamePattern2Result(GAME).isPresent());
+        }
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(450));
+    }
+
+    @Test
+    public void backsOffOnServiceUnavailableAndRecovers() {
+        server.setDispatcher(new FixtureDispatcher(0, 1.0, 0, 0L));
+        HostThrottle throttle = HostThrottle.builder()
+                .defaults(HostThrottle.Limits.of(100, 10, 8))
+                .build();
+        BoxscoreRetriever retriever = new BoxscoreRetriever(config(throttle));
+        String host = server.getHostName();
+
+        for (int i = 0; i < 3; i++) {
+            assertFalse(retriever.gamePattern2Result(GAME).isPresent());
+        }
+        assertEquals(1, throttle.getConcurrencyLimit(host));
+        assertEquals(12.5, throttle.getRate(host), 0.001);
+
+        server.setDispatcher(new FixtureDispatcher());
+        for (int i = 0; i < 5; i++) {
+            assertTrue(retriever.gamePattern2Result(GAME).isPresent());
+        }
+        assertTrue(throttle.getConcurrencyLimit(host) > 1);
+        assertTrue(throttle.getRate(host) > 12.5);
+    }
+
+    @Test
+    public void honoursRetryAfter() {
+        FixtureDispatcher fixtures = new FixtureDispatcher();
+        AtomicBoolean throttled = new AtomicBoolean();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                if (throttled.compareAndSet(false, true)) {
+                    return new MockResponse().setResponseCode(429).setHeader("Retry-After", "1");
+                }
+                return fixtures.dispatch(request);
+            }
+        });
+        BoxscoreRetriever retriever = new BoxscoreRetriever(config(HostThrottle.builder().build()));
+
+        assertFalse(retriever.gamePattern2Result(GAME).isPresent());
+        long start = System.nanoTime();
+        assertTrue(retriever.gamePattern2Result(GAME).isPresent());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(900));
+    }
+}
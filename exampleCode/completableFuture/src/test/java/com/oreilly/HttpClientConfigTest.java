@@ -0,0 +1,66 @@
+package com.oreilly;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Month;
+
+import static org.junit.Assert.*;
+
+public class HttpClientConfigTest {
+    @Rule
+    public MockWebServer server = new MockWebServer();
+
+    @Test
+    public void client() {
+        HttpClientConfig config = HttpClientConfig.builder()
+                .maxRequests(128)
+                .maxRequestsPerHost(32)
+                .maxIdleConnections(32)
+                .keepAlive(Duration.ofSeconds(30))
+                .readTimeout(Duration.ofSeconds(3))
+                .build();
+
+        OkHttpClient client = config.client();
+        assertSame(client, config.client());
+        assertEquals(128, client.dispatcher().getMaxRequests());
+        assertEquals(32, client.dispatcher().getMaxRequestsPerHost());
+        assertEquals(3000, client.readTimeoutMillis());
+        assertEquals(GamePageLinksSupplier.BASE, config.getBaseUrl());
+        assertSame(HttpClientConfig.defaults(), HttpClientConfig.defaults());
+    }
+
+    @Test
+    public void defaultsAllowTheRetrieversFanOut() {
+        OkHttpClient client = HttpClientConfig.defaults().client();
+        assertEquals(64, client.dispatcher().getMaxRequests());
+        assertEquals(64, client.dispatcher().getMaxRequestsPerHost());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsZeroRequestsPerHost() {
+        HttpClientConfig.builder().maxRequestsPerHost(0).build();
+    }
+
+    @Test
+    public void connectionsAreReusedAcrossInstances() throws InterruptedException {
+        server.setDispatcher(new FixtureDispatcher());
+        HttpClientConfig config = HttpClientConfig.builder()
+                .baseUrl(server.url("/").toString())
+                .build();
+        LocalDate date = LocalDate.of(2017, Month.MAY, 5);
+
+        assertEquals(15, new GamePageLinksSupplier(config, date, 1).get().size());
+        assertTrue(new BoxscoreRetriever(config).gamePattern2Result("gid_2017_05_05_arimlb_colmlb_1/").isPresent());
+        assertTrue(new BoxscoreRetriever(config).gamePattern2Result("gid_2017_05_05_anamlb_texmlb_1/").isPresent());
+
+        assertEquals(0, server.takeRequest().getSequenceNumber());
+        assertEquals(1, server.takeRequest().getSequenceNumber());
+        assertEquals(2, server.takeRequest().getSequenceNumber());
+        assertEquals(1, config.client().connectionPool().connectionCount());
+    }
+}
@@ -0,0 +1,51 @@
+package com.oreilly;
+
+import okhttp3.mockwebserver.MockWebServer;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Compares the common-pool pipeline with the executor pipeline against a local
+ * stand-in server. Run the main method; the pipeline output itself is noisy,
+ * so the timings are printed to stderr.
+ */
+public class PrintGamesBenchmark {
+    private static final LocalDate START = LocalDate.of(2017, Month.MAY, 5);
+
+    public static void main(String[] args) throws IOException {
+        int days = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int gamesPerDay = args.length > 1 ? Integer.parseInt(args[1]) : 15;
+        long latencyMillis = args.length > 2 ? Long.parseLong(args[2]) : 100;
+
+        try (MockWebServer server = new MockWebServer()) {
+            server.setDispatcher(new FakeMlbDispatcher(gamesPerDay, latencyMillis));
+            server.start();
+            GamePageParser parser = new GamePageParser(server.url("/").toString());
+
+            report("common pool", time(() -> parser.printGames(START, days)));
+            ExecutorService executor = PipelineExecutors.newVirtualThreadPerTaskExecutor();
+            try {
+                String name = PipelineExecutors.virtualThreadsAvailable()
+                        ? "virtual threads" : "cached thread pool";
+                report(name, time(() -> parser.printGames(START, days, executor)));
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    private static Duration time(Runnable run) {
+        Instant start = Instant.now();
+        run.run();
+        return Duration.between(start, Instant.now());
+    }
+
+    private static void report(String mode, Duration duration) {
+        System.err.printf("%-20s %6d ms%n", mode, duration.toMillis());
+    }
+}
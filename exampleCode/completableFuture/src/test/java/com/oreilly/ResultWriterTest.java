@@ -0,0 +1,54 @@
+package com.oreilly;
+
+import com.google.gson.Gson;
+import com.oreilly.json.Result;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class ResultWriterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Result sample() throws IOException {
+        try (Reader reader = new InputStreamReader(
+                getClass().getResourceAsStream("/sample_boxscore.json"), StandardCharsets.UTF_8)) {
+            return new Gson().fromJson(reader, Result.class);
+        }
+    }
+
+    @Test
+    public void fileName() throws IOException {
+        assertEquals("May_5_2017_Arizona_Diamondbacks_at_Colorado_Rockies.txt",
+                ResultWriter.fileName(sample()));
+    }
+
+    @Test
+    public void writeCreatesDirectory() throws IOException {
+        Path dir = folder.getRoot().toPath().resolve("build/data");
+        Path file = new ResultWriter(dir, true).write(sample());
+
+        assertEquals(dir.resolve("May_5_2017_Arizona_Diamondbacks_at_Colorado_Rockies.txt"), file);
+        String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        assertTrue(json.contains("\n  \"subject\": \"boxscore\""));
+        assertEquals(sample().toString(), new Gson().fromJson(json, Result.class).toString());
+    }
+
+    @Test
+    public void writeCompact() throws IOException {
+        Path file = new ResultWriter(folder.getRoot().toPath(), false).write(sample());
+
+        String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        assertFalse(json.contains("\n"));
+        assertEquals(sample().toString(), new Gson().fromJson(json, Result.class).toString());
+    }
+}
@@ -0,0 +1,124 @@
+package com.oreilly;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+public class ShardQueueTest {
+    private static final LocalDate MAY_28 = LocalDate.of(2017, Month.MAY, 28);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path dir;
+    private ShardQueue queue;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = folder.getRoot().toPath().resolve("queue");
+        queue = ShardQueue.create(dir, Duration.ofMinutes(1));
+    }
+
+    @Test
+    public void eachShardIsLeasedToOneWorker() throws Exception {
+        BackfillCoordinator coordinator = new BackfillCoordinator(queue);
+        assertEquals(3, coordinator.submitDays(MAY_28, 5, 2));
+
+        ShardQueue other = ShardQueue.open(dir);
+        ShardQueue.Lease first = queue.claim("worker-1").get();
+        ShardQueue.Lease second = other.claim("worker-2").get();
+        ShardQueue.Lease third = other.claim("worker-2").get();
+        assertFalse(queue.claim("worker-1").isPresent());
+
+        assertEquals("days_2017-05-28", first.getShard().getId());
+        assertEquals(MAY_28, first.getShard().getStartDate());
+        assertEquals(2, first.getShard().getDays());
+        assertEquals(1, third.getShard().getDays());
+        assertNotEquals(first.getShard().getId(), second.getShard().getId());
+
+        assertTrue(first.complete());
+        assertTrue(second.complete());
+        assertFalse(queue.isFinished());
+        assertTrue(third.release());
+        assertEquals(1, queue.pendingCount());
+        assertTrue(queue.claim("worker-1").get().complete());
+
+        assertTrue(queue.isFinished());
+        assertEquals(3, queue.doneCount());
+    }
+
+    @Test
+    public void submittingAgainAddsOnlyNewShards() throws Exception {
+        BackfillCoordinator coordinator = new BackfillCoordinator(queue);
+        coordinator.submitDays(MAY_28, 2, 1);
+        queue.claim("worker-1").get().complete();
+        queue.claim("worker-1");
+
+        assertEquals(1, coordinator.submitDays(MAY_28, 3, 1));
+        assertEquals(1, queue.pendingCount());
+        assertEquals(1, queue.leasedCount());
+        assertEquals(1, queue.doneCount());
+    }
+
+    @Test
+    public void expiredLeaseIsTakenOver() throws Exception {
+        queue.submit(Shard.ofGames("games_000000",
+                Arrays.asList("gid_2017_05_28_arimlb_colmlb_1/", "gid_2017_05_28_atlmlb_phimlb_1/")));
+        // a worker id from the runtime MXBean contains an @ too
+        ShardQueue.Lease abandoned = queue.claim("1234@host").get();
+        assertTrue(abandoned.heartbeat());
+        assertEquals(0, queue.reclaimExpired());
+
+        // its holder stops heartbeating
+        try (DirectoryStream<Path> leases = Files.newDirectoryStream(dir.resolve("leased"))) {
+            for (Path lease : leases) {
+                Files.setLastModifiedTime(lease, FileTime.fromMillis(System.currentTimeMillis() - 120_000));
+            }
+        }
+        Optional<ShardQueue.Lease> takeover = queue.claim("worker-2");
+        assertTrue(takeover.isPresent());
+        assertEquals(2, takeover.get().getShard().getGames().size());
+
+        assertFalse(abandoned.heartbeat());
+        assertFalse(abandoned.complete());
+        assertTrue(takeover.get().heartbeat());
+        assertTrue(takeover.get().complete());
+        assertTrue(queue.isFinished());
+    }
+
+    @Test
+    public void shardThatKeepsFailingIsSetAside() throws Exception {
+        ShardQueue queue = ShardQueue.create(folder.getRoot().toPath().resolve("strict"), Duration.ofMinutes(1), 2);
+        queue.submit(Shard.ofDays("days_2017-05-28", MAY_28, 1));
+
+        assertTrue(queue.claim("worker-1").get().release());
+        assertEquals(1, queue.pendingCount());
+        assertFalse(queue.isFinished());
+
+        assertTrue(queue.claim("worker-2").get().release());
+        assertEquals(0, queue.pendingCount());
+        assertEquals(1, queue.failedCount());
+        assertFalse(queue.claim("worker-1").isPresent());
+        assertTrue(queue.isFinished());
+    }
+
+    @Test
+    public void reopenedQueueKeepsItsLeaseTimeout() throws Exception {
+        assertEquals(Duration.ofMinutes(1), ShardQueue.create(dir, Duration.ofSeconds(5)).getLeaseTimeout());
+        assertEquals(Duration.ofMinutes(1), ShardQueue.open(dir).getLeaseTimeout());
+        assertEquals(3, ShardQueue.open(dir).getMaxAttempts());
+    }
+}
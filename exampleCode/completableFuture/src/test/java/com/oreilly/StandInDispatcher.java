@@ -0,0 +1,88 @@
+package com.oreilly;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base for the local stand-ins for gd2.mlb.com. Every response is delayed by
+ * {@code latencyMillis}; at most {@code maxConcurrency} requests are served at once
+ * (the rest wait, as on a saturated server); and a fraction {@code errorRate} of
+ * requests fail with a 503.
+ *
+ * <p>Failures are deterministic: whether the n-th request for a path fails depends only
+ * on the path, n and the seed, not on how concurrent requests interleave, so a load test
+ * sees the same failures on every run.
+ */
+public abstract class StandInDispatcher extends Dispatcher {
+    private final long latencyMillis;
+    private final double errorRate;
+    private final long seed;
+    private final Semaphore capacity;
+    private final Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger errors = new AtomicInteger();
+
+    protected StandInDispatcher(long latencyMillis, double errorRate, int maxConcurrency, long seed) {
+        this.latencyMillis = latencyMillis;
+        this.errorRate = errorRate;
+        this.seed = seed;
+        this.capacity = maxConcurrency > 0 ? new Semaphore(maxConcurrency) : null;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    public int getErrorCount() {
+        return errors.get();
+    }
+
+    @Override
+    public final MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+        if (capacity != null) {
+            capacity.acquire();
+        }
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(latencyMillis);
+            if (fails(request.getPath())) {
+                errors.incrementAndGet();
+                return new MockResponse().setResponseCode(503);
+            }
+            return respond(request);
+        } finally {
+            inFlight.decrementAndGet();
+            if (capacity != null) {
+                capacity.release();
+            }
+        }
+    }
+
+    protected abstract MockResponse respond(RecordedRequest request);
+
+    private boolean fails(String path) {
+        if (errorRate <= 0) {
+            return false;
+        }
+        int attempt = attempts.computeIfAbsent(path, p -> new AtomicInteger()).getAndIncrement();
+        long hash = seed;
+        for (int i = 0; i < path.length(); i++) {
+            hash = hash * 31 + path.charAt(i);
+        }
+        hash = hash * 31 + attempt;
+        // spread the bits before taking a uniform fraction (MurmurHash3's fmix64)
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (hash >>> 11) * 0x1.0p-53 < errorRate;
+    }
+}
@@ -0,0 +1,51 @@
+package com.oreilly.json;
+
+import com.google.gson.Gson;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LinescoreTest {
+
+    @Test
+    public void parseRuns() {
+        assertEquals(0, Linescore.parseRuns("0"));
+        assertEquals(12, Linescore.parseRuns("12"));
+        assertEquals(7, Linescore.parseRuns(" 7 "));
+        assertEquals(0, Linescore.parseRuns("x"));
+        assertEquals(0, Linescore.parseRuns(""));
+        assertEquals(0, Linescore.parseRuns("  "));
+        assertEquals(0, Linescore.parseRuns(null));
+        assertEquals(0, Linescore.parseRuns("99999999999"));
+    }
+
+    @Test
+    public void settersParseOnce() {
+        Linescore linescore = new Linescore();
+        linescore.setHomeTeamRuns("5");
+        linescore.setAwayTeamRuns("x");
+
+        assertEquals("5", linescore.getHomeTeamRuns());
+        assertEquals("x", linescore.getAwayTeamRuns());
+        assertEquals(5, linescore.getHomeRuns());
+        assertEquals(0, linescore.getAwayRuns());
+        assertEquals(5, linescore.getTotalRuns());
+    }
+
+    @Test
+    public void runsOfReflectivelyBoundLinescore() {
+        Linescore linescore = new Gson().fromJson(
+                "{\"home_team_runs\":\"3\",\"away_team_runs\":\"4\"}", Linescore.class);
+
+        assertEquals(7, linescore.getTotalRuns());
+        assertEquals("{\"home_team_runs\":\"3\",\"away_team_runs\":\"4\"}", new Gson().toJson(linescore));
+    }
+
+    @Test
+    public void runsOfStreamedLinescore() {
+        Result result = BoxscoreGson.get().fromJson("{\"data\":{\"boxscore\":{\"linescore\":"
+                + "{\"home_team_runs\":\"10\",\"away_team_runs\":\"\"}}}}", Result.class);
+
+        assertEquals(10, result.getData().getBoxscore().getLinescore().getTotalRuns());
+    }
+}
@@ -0,0 +1,59 @@
+package com.oreilly.json;
+
+import com.google.gson.Gson;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class ResultTypeAdapterTest {
+    private final Gson reflective = new Gson();
+    private final Gson streaming = BoxscoreGson.get();
+
+    private Result sample(Gson gson) throws IOException {
+        try (Reader reader = new InputStreamReader(
+                getClass().getResourceAsStream("/sample_boxscore.json"), StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, Result.class);
+        }
+    }
+
+    @Test
+    public void readsTheSameFieldsAsReflection() throws IOException {
+        Result result = sample(streaming);
+        Boxscore boxscore = result.getData().getBoxscore();
+
+        assertEquals("boxscore", result.getSubject());
+        assertEquals("2017/05/05/arimlb-colmlb-1", boxscore.getGameId());
+        assertEquals("Arizona Diamondbacks", boxscore.getAwayFname());
+        assertEquals(sample(reflective).toString(), result.toString());
+        assertEquals(reflective.toJson(sample(reflective)), reflective.toJson(result));
+    }
+
+    @Test
+    public void writesWhatReflectionWrites() throws IOException {
+        Result result = sample(reflective);
+        assertEquals(reflective.toJson(result), streaming.toJson(result));
+
+        result.getData().getBoxscore().setLinescore(null);
+        result.setCopyright(null);
+        assertEquals(reflective.toJson(result), streaming.toJson(result));
+    }
+
+    @Test
+    public void skipsUnknownFieldsAndToleratesNulls() {
+        String json = "{\"subject\":\"boxscore\",\"extra\":[1,{\"a\":null}],\"data\":{\"boxscore\":"
+                + "{\"batting\":[{\"name\":\"x\"}],\"date\":\"May 5, 2017\",\"linescore\":"
+                + "{\"inning_line_score\":[],\"home_team_runs\":7,\"away_team_runs\":null}}}}";
+        Result result = streaming.fromJson(json, Result.class);
+        Linescore linescore = result.getData().getBoxscore().getLinescore();
+
+        assertEquals("May 5, 2017", result.getData().getBoxscore().getDate());
+        assertEquals("7", linescore.getHomeTeamRuns());
+        assertNull(linescore.getAwayTeamRuns());
+        assertNull(streaming.fromJson("null", Result.class));
+    }
+}
@@ -0,0 +1,63 @@
+package com.oreilly.json;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class TeamRegistryTest {
+
+    @Test
+    public void assignsIdsInOrderFirstSeen() {
+        TeamRegistry registry = new TeamRegistry();
+
+        assertEquals(0, registry.teamId("Colorado Rockies"));
+        assertEquals(1, registry.teamId("Arizona Diamondbacks"));
+        assertEquals(0, registry.teamId(new String("Colorado Rockies")));
+        assertEquals(2, registry.size());
+        assertEquals("Arizona Diamondbacks", registry.teamName(1));
+        assertEquals(-1, registry.find("Montreal Expos"));
+        assertEquals(-1, registry.teamId(null));
+    }
+
+    @Test
+    public void intern() {
+        TeamRegistry registry = new TeamRegistry();
+        String colorado = registry.intern("Colorado");
+
+        assertSame(colorado, registry.intern(new String("Colorado")));
+        assertNull(registry.intern(null));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void decodedBoxscoresShareNamesAndCarryIds() throws IOException {
+        Boxscore first = decode().getData().getBoxscore();
+        Boxscore second = decode().getData().getBoxscore();
+
+        assertSame(first.getHomeFname(), second.getHomeFname());
+        assertSame(first.getAwaySname(), second.getAwaySname());
+        assertEquals(TeamRegistry.shared().find("Colorado Rockies"), first.getHomeTeamId());
+        assertEquals("Arizona Diamondbacks", TeamRegistry.shared().teamName(second.getAwayTeamId()));
+    }
+
+    @Test
+    public void idsOfBoxscoresBuiltByHand() {
+        Boxscore boxscore = new Boxscore();
+        assertEquals(-1, boxscore.getHomeTeamId());
+
+        boxscore.setHomeFname("Texas Rangers");
+        assertEquals("Texas Rangers", TeamRegistry.shared().teamName(boxscore.getHomeTeamId()));
+    }
+
+    private Result decode() throws IOException {
+        try (Reader reader = new InputStreamReader(
+                getClass().getResourceAsStream("/sample_boxscore.json"), StandardCharsets.UTF_8)) {
+            return BoxscoreGson.get().fromJson(reader, Result.class);
+        }
+    }
+}
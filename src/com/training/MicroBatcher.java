@@ -0,0 +1,104 @@
+package com.training;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Collects individual lookups for a short window, or until maxBatchSize keys are waiting,
+// then issues one batched call and fans the results back out to the per-key futures.
+// The cost of a remote round-trip is shared by every key in the batch.
+// A key missing from the batch result fails its own future only, with the exception made by onMissing;
+// if the batch call throws, every future of that batch fails.
+public class MicroBatcher<K, V> {
+
+    private final Function<Collection<K>, Map<K, V>> batchLoader;
+    private final Function<? super K, ? extends RuntimeException> onMissing;
+    private final int maxBatchSize;
+    private final long windowNanos;
+    private final Executor executor;
+    private final ScheduledExecutorService timer;
+
+    private Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>(); // guarded by this
+
+    public MicroBatcher(Function<Collection<K>, Map<K, V>> batchLoader, int maxBatchSize, Duration window) {
+        this(batchLoader, key -> new NoSuchElementException("No value for " + key),
+                maxBatchSize, window, ForkJoinPool.commonPool());
+    }
+
+    public MicroBatcher(Function<Collection<K>, Map<K, V>> batchLoader,
+                        Function<? super K, ? extends RuntimeException> onMissing,
+                        int maxBatchSize, Duration window, Executor executor) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+        }
+        this.batchLoader = batchLoader;
+        this.onMissing = onMissing;
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = window.toNanos();
+        this.executor = executor;
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "micro-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        this.timer = scheduler;
+    }
+
+    public CompletableFuture<V> load(K key) {
+        Map<K, CompletableFuture<V>> full = null;
+        CompletableFuture<V> future;
+        synchronized (this) {
+            future = pending.get(key);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                pending.put(key, future);
+                if (pending.size() == 1) {
+                    Map<K, CompletableFuture<V>> batch = pending;
+                    timer.schedule(() -> flush(batch), windowNanos, TimeUnit.NANOSECONDS);
+                }
+                if (pending.size() >= maxBatchSize) {
+                    full = pending;
+                    pending = new LinkedHashMap<>();
+                }
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return future;
+    }
+
+    // called by the timer; does nothing if the batch already filled up and was sent
+    private void flush(Map<K, CompletableFuture<V>> batch) {
+        synchronized (this) {
+            if (pending != batch) {
+                return;
+            }
+            pending = new LinkedHashMap<>();
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Map<K, CompletableFuture<V>> batch) {
+        CompletableFuture.supplyAsync(() -> batchLoader.apply(batch.keySet()), executor)
+                .whenComplete((results, ex) -> batch.forEach((key, future) -> {
+                    if (ex != null) {
+                        future.completeExceptionally(ex);
+                    } else if (results.containsKey(key)) {
+                        future.complete(results.get(key));
+                    } else {
+                        future.completeExceptionally(onMissing.apply(key));
+                    }
+                }));
+    }
+}
@@ -52,6 +52,11 @@ public class ParallelismAndConcurrency {
         return LongStream.rangeClosed(1, N).parallel().sum();
     }
 
+    //RangeSum splits the range evenly and only goes parallel when the range is big enough to pay for it
+    static Long rangeSum(int N) {
+        return RangeSum.sum(1, N);
+    }
+
     // Submitting a Callable and returning the Future
     static void callableFutureExample() {
         ExecutorService service = Executors.newCachedThreadPool();
@@ -83,34 +88,73 @@ public class ParallelismAndConcurrency {
     // The runAsync methods are useful if you don’t need to return anything.
     // The supplyAsync methods return an object using the given Supplier
 
-    static Map<Integer, Product> cache = new HashMap<>();
+    //A plain static HashMap written from the supplyAsync threads is a data race, and it grows without limit.
+    //BoundedCache is thread safe, evicts the least recently used products and expires stale ones.
+    static BoundedCache<Integer, Product> cache = new BoundedCache<>(10_000, Duration.ofMinutes(10));
 
     Product getLocal(int id) {
         return cache.get(id);
     }
 
-    Product getRemote(int id) {
+    //One remote round-trip for many ids: the 100 ms is paid once per batch instead of once per id.
+    //Ids the remote side rejects (666) are left out of the result.
+    static Map<Integer, Product> getRemoteBatch(Collection<Integer> ids) {
         try {
             Thread.sleep(100);
-            if (id == 666) {
-                throw new RuntimeException("Evil request");
-            }
         } catch (InterruptedException ignored) {
         }
-        return new Product(id, "name");
+        Map<Integer, Product> products = new HashMap<>();
+        for (int id : ids) {
+            if (id != 666) {
+                products.put(id, new Product(id, "name"));
+            }
+        }
+        return products;
     }
 
+    //Cache misses from getProduct are collected for up to 5 ms (or 50 ids) and sent as one getRemoteBatch call.
+    //Static like cache and inFlight, so all instances share one batch window and one scheduler thread.
+    static MicroBatcher<Integer, Product> batcher =
+            new MicroBatcher<>(ParallelismAndConcurrency::getRemoteBatch, id -> new RuntimeException("Evil request"),
+                    50, Duration.ofMillis(5), ForkJoinPool.commonPool());
+
+    //Single-flight: concurrent misses for the same id share one in-flight remote call instead of each paying
+    // the remote latency again. The entry is removed once the call completes, so a failure (id 666) reaches
+    // every waiter but is not remembered, and the next request tries again.
+    static Map<Integer, CompletableFuture<Product>> inFlight = new ConcurrentHashMap<>();
+
     CompletableFuture<Product> getProduct(int id) {
         try {
             Product product = getLocal(id);
             if (product != null) {
                 return CompletableFuture.completedFuture(product);
             } else {
-                return CompletableFuture.supplyAsync(() -> {
-                    Product p = getRemote(id);
-                    cache.put(id, p);
-                    return p;
-                });
+                CompletableFuture<Product> created = new CompletableFuture<>();
+                CompletableFuture<Product> shared = inFlight.putIfAbsent(id, created);
+                if (shared == null) {
+                    shared = created;
+                    //another flight may have filled the cache between our miss and the putIfAbsent
+                    Product cached = getLocal(id);
+                    if (cached != null) {
+                        inFlight.remove(id, created);
+                        created.complete(cached);
+                        return CompletableFuture.completedFuture(cached);
+                    }
+                    batcher.load(id)
+                            .whenComplete((p, ex) -> {
+                                if (ex == null) {
+                                    cache.put(id, p);
+                                }
+                                inFlight.remove(id, created);
+                                if (ex == null) {
+                                    created.complete(p);
+                                } else {
+                                    created.completeExceptionally(ex);
+                                }
+                            });
+                }
+                //each caller gets its own dependent future, so one caller cancelling cannot affect the others
+                return shared.thenApply(p -> p);
             }
         } catch (Exception e) {
             CompletableFuture<Product> future = new CompletableFuture<>();
@@ -119,6 +163,22 @@ public class ParallelismAndConcurrency {
         }
     }
 
+    //Looks up many ids at once. Cached products are returned directly; the misses go through getProduct,
+    // so they are coalesced with lookups already in flight and batched into as few remote calls as possible.
+    //The returned future fails if any of the ids fails.
+    CompletableFuture<Map<Integer, Product>> getProducts(Collection<Integer> ids) {
+        Map<Integer, CompletableFuture<Product>> futures = new LinkedHashMap<>();
+        for (int id : ids) {
+            futures.put(id, getProduct(id));
+        }
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0]))
+                .thenApply(v -> {
+                    Map<Integer, Product> products = new LinkedHashMap<>();
+                    futures.forEach((id, future) -> products.put(id, future.join()));
+                    return products;
+                });
+    }
+
     //Coordinating CompletableFutures, Part 1
 
     String sleepThenReturnString() {
@@ -249,7 +309,7 @@ public void testExceptionWithCause() throws Exception {
 }
      */
 
-    class Product {
+    static class Product {
         private int id;
         private String name;
 
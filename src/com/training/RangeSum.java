@@ -0,0 +1,114 @@
+package com.training;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongConsumer;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+// Numeric reductions over a range of longs that parallelise well.
+//Stream.iterate(1L, i -> i + 1).limit(N) boxes every element and cannot be split: each thread has to
+// walk the iteration from the start. A range is SIZED and SUBSIZED, so it splits exactly in half in
+// constant time, and as a primitive LongStream nothing is boxed.
+//Small ranges are summed sequentially, because below a few hundred thousand elements the cost of
+// forking tasks outweighs the work.
+public final class RangeSum {
+
+    static final long PARALLEL_THRESHOLD = 200_000;
+
+    private RangeSum() {
+    }
+
+    // Sum of from..to (inclusive), sequential or parallel depending on the size of the range.
+    public static long sum(long from, long to) {
+        return reduce(from, to, 0L, Long::sum);
+    }
+
+    // Sum of f(i) for i in from..to (inclusive).
+    public static long sum(long from, long to, LongUnaryOperator f) {
+        return rangeClosed(from, to).map(f).sum();
+    }
+
+    public static long reduce(long from, long to, long identity, LongBinaryOperator op) {
+        return rangeClosed(from, to).reduce(identity, op);
+    }
+
+    // A stream of from..to (inclusive) backed by LongRangeSpliterator.
+    // It is parallel when the range is at least PARALLEL_THRESHOLD long.
+    public static LongStream rangeClosed(long from, long to) {
+        LongRangeSpliterator range = LongRangeSpliterator.closed(from, to);
+        return StreamSupport.longStream(range, range.estimateSize() >= PARALLEL_THRESHOLD);
+    }
+
+    // Splits a range in half until the halves are too small to be worth splitting.
+    // The range must hold at most Long.MAX_VALUE elements.
+    static final class LongRangeSpliterator implements Spliterator.OfLong {
+        private static final long MIN_SPLIT = 1 << 12;
+
+        private long next;
+        private long remaining;
+
+        // from..to, inclusive
+        static LongRangeSpliterator closed(long from, long to) {
+            long size = to < from ? 0 : to - from + 1;
+            if (to >= from && size <= 0) {
+                throw new IllegalArgumentException("range too large: " + from + ".." + to);
+            }
+            return new LongRangeSpliterator(from, size);
+        }
+
+        private LongRangeSpliterator(long next, long remaining) {
+            this.next = next;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public OfLong trySplit() {
+            if (remaining < 2 * MIN_SPLIT) {
+                return null;
+            }
+            long half = remaining / 2;
+            LongRangeSpliterator prefix = new LongRangeSpliterator(next, half);
+            next += half;
+            remaining -= half;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            action.accept(next++);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            long i = next;
+            long n = remaining;
+            remaining = 0;
+            for (; n > 0; n--, i++) {
+                action.accept(i);
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return remaining;
+        }
+
+        @Override
+        public int characteristics() {
+            return SIZED | SUBSIZED | ORDERED | SORTED | DISTINCT | IMMUTABLE | NONNULL;
+        }
+
+        @Override
+        public Comparator<? super Long> getComparator() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.training;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+// Compares the four sum methods of ParallelismAndConcurrency with RangeSum.
+//sequentialSum and parallelSum print every element through peek, so System.out is silenced while they run;
+// the printing is still paid for, which is part of what makes them slow.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 2, jvmArgs = {"-Xms2G", "-Xmx2G"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SumBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int n;
+
+    private PrintStream out;
+
+    @Setup
+    public void silence() {
+        out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void restore() {
+        System.setOut(out);
+    }
+
+    @Benchmark
+    public Long sequentialSum() {
+        return ParallelismAndConcurrency.sequentialSum(n);
+    }
+
+    @Benchmark
+    public Long parallelSum() {
+        return ParallelismAndConcurrency.parallelSum(n);
+    }
+
+    @Benchmark
+    public Long sequentialLongStreamSum() {
+        return ParallelismAndConcurrency.sequentialLongStreamSum(n);
+    }
+
+    @Benchmark
+    public Long parallelLongStreamSum() {
+        return ParallelismAndConcurrency.parallelLongStreamSum(n);
+    }
+
+    @Benchmark
+    public long rangeSum() {
+        return RangeSum.sum(1, n);
+    }
+
+    @Benchmark
+    public long rangeSumForcedParallel() {
+        return RangeSum.rangeClosed(1, n).parallel().sum();
+    }
+}
@@ -4,9 +4,7 @@ package com.training;
 // source:  //https://github.com/openjdk/jmh
 //maven: https://mvnrepository.com/artifact/org.openjdk.jmh/jmh-core
 
-import java.util.stream.IntStream;
-
-/*
+// Run with: gradle jmh -Pjmh=TimingUsingJMH   (or build the benchmarks jar with: gradle jmhJar)
 
 import org.openjdk.jmh.annotations.*;
 
@@ -17,9 +15,8 @@ import java.util.stream.IntStream;
 @OutputTimeUnit(TimeUnit.MILLISECONDS)
 @State(Scope.Thread)
 @Fork(value = 2, jvmArgs = {"-Xms4G", "-Xmx4G"})
- */
 public class TimingUsingJMH {
-/*
+
     public int doubleIt(int n) {
         try {
             Thread.sleep(100);
@@ -42,5 +39,4 @@ public class TimingUsingJMH {
                 .map(this::doubleIt)
                 .sum();
     }
-*/
 }